@@ -0,0 +1,19 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    jmh(project(":hc5-async-json"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.asProvider())
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.ok2c.hc5.json.JsonConsumer;
+
+/**
+ * Feeds document content to a consumer in chunks of the given size through a single
+ * re-usable buffer the same way an I/O reactor would.
+ */
+final class ChunkedInput {
+
+    private final byte[] content;
+    private final ByteBuffer chunk;
+
+    ChunkedInput(byte[] content, int chunkSize, boolean direct) {
+        this.content = content;
+        this.chunk = direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+    }
+
+    int length() {
+        return content.length;
+    }
+
+    void feed(JsonConsumer<ByteBuffer> consumer) throws IOException {
+        int chunkSize = chunk.capacity();
+        for (int off = 0; off < content.length; off += chunkSize) {
+            chunk.clear();
+            chunk.put(content, off, Math.min(chunkSize, content.length - off));
+            chunk.flip();
+            consumer.accept(chunk);
+        }
+    }
+
+}
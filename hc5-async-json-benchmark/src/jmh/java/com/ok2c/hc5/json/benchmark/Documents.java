@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.benchmark;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Synthetic JSON documents used by benchmarks.
+ */
+public enum Documents {
+
+    /**
+     * Single object of about 450 bytes.
+     */
+    SMALL {
+
+        @Override
+        void write(StringBuilder buf) {
+            record(buf, 1);
+        }
+
+    },
+
+    /**
+     * Single structured object of about 900 KB.
+     */
+    LARGE {
+
+        @Override
+        void write(StringBuilder buf) {
+            buf.append("{\"name\":\"large\",\"groups\":[");
+            for (int i = 0; i < 100; i++) {
+                if (i > 0) {
+                    buf.append(',');
+                }
+                buf.append("{\"group\":").append(i).append(",\"records\":[");
+                for (int n = 0; n < 20; n++) {
+                    if (n > 0) {
+                        buf.append(',');
+                    }
+                    record(buf, i * 20 + n);
+                }
+                buf.append("]}");
+            }
+            buf.append("]}");
+        }
+
+    },
+
+    /**
+     * Array of 2000 objects of about 900 KB.
+     */
+    LONG_ARRAY {
+
+        @Override
+        void write(StringBuilder buf) {
+            buf.append('[');
+            for (int i = 0; i < 2000; i++) {
+                if (i > 0) {
+                    buf.append(',');
+                }
+                record(buf, i);
+            }
+            buf.append(']');
+        }
+
+    },
+
+    /**
+     * Array of 200 objects nested 32 levels deep of about 420 KB.
+     */
+    DEEP {
+
+        @Override
+        void write(StringBuilder buf) {
+            buf.append('[');
+            for (int i = 0; i < 200; i++) {
+                if (i > 0) {
+                    buf.append(',');
+                }
+                for (int n = 0; n < 32; n++) {
+                    buf.append("{\"level\":").append(n)
+                            .append(",\"values\":[").append(i).append(',').append(n).append(",true,null]")
+                            .append(",\"children\":[");
+                }
+                record(buf, i);
+                for (int n = 0; n < 32; n++) {
+                    buf.append("]}");
+                }
+            }
+            buf.append(']');
+        }
+
+    },
+
+    /**
+     * Sequence of 2000 top level objects separated with line feeds of about 900 KB.
+     */
+    SEQUENCE {
+
+        @Override
+        void write(StringBuilder buf) {
+            for (int i = 0; i < 2000; i++) {
+                record(buf, i);
+                buf.append('\n');
+            }
+        }
+
+    };
+
+    abstract void write(StringBuilder buf);
+
+    public byte[] content() {
+        StringBuilder buf = new StringBuilder();
+        write(buf);
+        return buf.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static void record(StringBuilder buf, int id) {
+        buf.append("{\"id\":").append(id)
+                .append(",\"name\":\"record-").append(id).append('"')
+                .append(",\"timestamp\":").append(1546300800000L + id * 1000L)
+                .append(",\"score\":").append(id * 0.25)
+                .append(",\"active\":").append(id % 2 == 0)
+                .append(",\"parent\":null")
+                .append(",\"tags\":[\"alpha\",\"beta\",\"gamma\",\"delta\"]")
+                .append(",\"attributes\":{")
+                .append("\"host\":\"httpbin.org\",")
+                .append("\"accept\":\"application/json\",")
+                .append("\"accept-encoding\":\"gzip, deflate\",")
+                .append("\"accept-language\":\"en-US,en;q=0.9\",")
+                .append("\"user-agent\":\"Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) ")
+                .append("Chrome/71.0.3578.98 Safari/537.36\"}")
+                .append(",\"values\":[1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16]}");
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.ok2c.hc5.json.JsonAsyncTokenizer;
+import com.ok2c.hc5.json.JsonConsumer;
+import com.ok2c.hc5.json.JsonTokenConsumer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonAsyncTokenizerBenchmark {
+
+    @Param({"1", "16", "256", "4096", "65536"})
+    public int chunkSize;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    @Param({"SMALL", "LARGE", "LONG_ARRAY"})
+    public Documents document;
+
+    private ChunkedInput input;
+    private JsonAsyncTokenizer jsonTokenizer;
+    private JsonConsumer<ByteBuffer> chunkConsumer;
+    private JsonTokenConsumer tokenConsumer;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        input = new ChunkedInput(document.content(), chunkSize, direct);
+        jsonTokenizer = new JsonAsyncTokenizer(new JsonFactory());
+        chunkConsumer = jsonTokenizer::consume;
+        tokenConsumer = (tokenId, jsonParser) -> blackhole.consume(tokenId);
+    }
+
+    @Benchmark
+    public void tokenize() throws IOException {
+        jsonTokenizer.initialize(tokenConsumer);
+        input.feed(chunkConsumer);
+        jsonTokenizer.streamEnd();
+    }
+
+}
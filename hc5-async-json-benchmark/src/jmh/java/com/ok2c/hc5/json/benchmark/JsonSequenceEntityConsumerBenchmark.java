@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.impl.BasicEntityDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ok2c.hc5.json.JsonResultSink;
+import com.ok2c.hc5.json.http.JsonSequenceEntityConsumer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSequenceEntityConsumerBenchmark {
+
+    public static class Record {
+
+        public long id;
+        public String name;
+        public long timestamp;
+        public double score;
+        public boolean active;
+        public String parent;
+        public List<String> tags;
+        public Map<String, String> attributes;
+        public int[] values;
+
+    }
+
+    @Param({"256", "4096", "65536"})
+    public int chunkSize;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    private ChunkedInput input;
+    private ObjectMapper objectMapper;
+    private JsonResultSink<Record> resultSink;
+    private FutureCallback<Long> resultCallback;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        input = new ChunkedInput(Documents.SEQUENCE.content(), chunkSize, direct);
+        objectMapper = new ObjectMapper();
+        resultSink = blackhole::consume;
+        resultCallback = new FutureCallback<Long>() {
+
+            @Override
+            public void completed(Long result) {
+                blackhole.consume(result);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+
+            @Override
+            public void cancelled() {
+            }
+
+        };
+    }
+
+    @Benchmark
+    public void consume() throws Exception {
+        JsonSequenceEntityConsumer<Record> entityConsumer = new JsonSequenceEntityConsumer<>(
+                objectMapper, Record.class, resultSink);
+        entityConsumer.streamStart(new BasicEntityDetails(input.length(), ContentType.APPLICATION_JSON), resultCallback);
+        input.feed(entityConsumer::consume);
+        entityConsumer.streamEnd(null);
+        entityConsumer.releaseResources();
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link JsonResultSink} that collects result objects into batches and passes
+ * those batches to another {@link JsonResultSink}. A batch is passed on once
+ * it reaches the maximum number of objects or, if a weigher is given, the maximum
+ * estimated size in bytes. The remaining objects are passed on as the last batch
+ * when the stream of result objects ends.
+ * <p>
+ * This class expects result objects to be passed to it one at a time
+ * and is not thread-safe.
+ * </p>
+ *
+ * @param <T> the type of object that represents a result of JSON message processing.
+ */
+public class BatchingResultSink<T> implements JsonResultSink<T> {
+
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final ToLongFunction<? super T> weigher;
+    private final JsonResultSink<List<T>> batchSink;
+
+    private List<T> batch;
+    private long batchBytes;
+
+    /**
+     * @param maxBatchSize  the maximum number of objects in a batch.
+     * @param maxBatchBytes the maximum estimated size of a batch in bytes.
+     * @param weigher       optional function that estimates the size of a result object in bytes.
+     * @param batchSink     the recipient of batches of result objects.
+     */
+    public BatchingResultSink(int maxBatchSize, long maxBatchBytes, ToLongFunction<? super T> weigher,
+                              JsonResultSink<List<T>> batchSink) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+        }
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Max batch bytes must be positive: " + maxBatchBytes);
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.weigher = weigher;
+        this.batchSink = Objects.requireNonNull(batchSink, "Batch sink");
+    }
+
+    /**
+     * @param maxBatchSize the maximum number of objects in a batch.
+     * @param batchSink    the recipient of batches of result objects.
+     */
+    public BatchingResultSink(int maxBatchSize, JsonResultSink<List<T>> batchSink) {
+        this(maxBatchSize, Long.MAX_VALUE, null, batchSink);
+    }
+
+    @Override
+    public void begin(int sizeHint) {
+        // The number of batches is known in advance only if batches are bounded by size alone
+        batchSink.begin(sizeHint >= 0 && weigher == null ? (int) ((sizeHint + (long) maxBatchSize - 1) / maxBatchSize) : -1);
+    }
+
+    @Override
+    public void accept(T result) {
+        if (batch == null) {
+            batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+        }
+        batch.add(result);
+        if (weigher != null) {
+            batchBytes += weigher.applyAsLong(result);
+        }
+        if (batch.size() >= maxBatchSize || batchBytes >= maxBatchBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Passes the objects collected so far, if any, to the batch sink.
+     */
+    public void flush() {
+        List<T> completed = batch;
+        batch = null;
+        batchBytes = 0;
+        if (completed != null && !completed.isEmpty()) {
+            batchSink.accept(completed);
+        }
+    }
+
+    @Override
+    public void end() {
+        flush();
+        batchSink.end();
+    }
+
+}
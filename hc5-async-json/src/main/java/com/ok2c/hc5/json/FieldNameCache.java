@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+/**
+ * Bounded cache of field names that lets repeated field names share a single
+ * {@link String} instance, so that objects assembled from a stream of similar
+ * records do not retain a copy of every field name.
+ * <p>
+ * The cache is direct-mapped: a newly seen name replaces the name with
+ * the same slot. Names longer than the given maximum length are not cached.
+ * </p>
+ * <p>
+ * Jackson parsers canonicalize field names by default
+ * (see {@link com.fasterxml.jackson.core.JsonFactory.Feature#CANONICALIZE_FIELD_NAMES}).
+ * This cache is meant for JSON factories with canonicalization disabled or for
+ * sharing field names between JSON factories.
+ * </p>
+ * <p>
+ * Instances of this class can be shared by multiple threads. The cache slots are
+ * read and written without synchronization, which can only cause a cache miss,
+ * as {@link String}s are immutable.
+ * </p>
+ */
+public final class FieldNameCache {
+
+    private final String[] names;
+    private final int mask;
+    private final int maxLength;
+
+    /**
+     * @param size      the number of cache slots, rounded up to a power of two.
+     * @param maxLength the maximum length of names to be cached.
+     */
+    public FieldNameCache(int size, int maxLength) {
+        if (size <= 0 || size > 1 << 24) {
+            throw new IllegalArgumentException("Invalid cache size: " + size);
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        this.names = new String[capacity];
+        this.mask = capacity - 1;
+        this.maxLength = maxLength;
+    }
+
+    public FieldNameCache() {
+        this(1024, 64);
+    }
+
+    /**
+     * Returns the cached name equal to the given one or caches the given name if not found.
+     *
+     * @param name the field name.
+     * @return the field name.
+     */
+    public String lookup(String name) {
+        if (name.length() > maxLength) {
+            return name;
+        }
+        int hash = name.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String cached = names[slot];
+        if (cached != null && cached.equals(name)) {
+            return cached;
+        }
+        names[slot] = name;
+        return name;
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+/**
+ * {@link JsonResultSink} that may process result objects asynchronously and
+ * signals its ability to accept more results through a {@link ResultCapacityChannel}.
+ * <p>
+ * Every result object passed to the sink consumes a unit of its capacity. Once
+ * the capacity is exhausted the producer of result objects is expected to stop
+ * reading input until the sink updates its capacity. Results that have already
+ * been decoded from the input read so far may still be passed to the sink.
+ * </p>
+ *
+ * @param <T> the type of object that represents a result of JSON message processing.
+ */
+public interface FlowControlledResultSink<T> extends JsonResultSink<T> {
+
+    /**
+     * Triggered to pass the capacity channel before the first result object.
+     * The sink is expected to use the channel to signal its initial capacity
+     * and to update it as results get processed.
+     *
+     * @param capacityChannel the result capacity channel.
+     */
+    void updateCapacity(ResultCapacityChannel capacityChannel);
+
+}
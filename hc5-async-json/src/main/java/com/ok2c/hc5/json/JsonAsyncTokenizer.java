@@ -24,21 +24,33 @@
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.JsonTokenId;
 import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
 
 /**
  * Event-driven, reactive JSON tokenizer that consumes data from a sequence
  * {@link ByteBuffer} objects and emits events to {@link JsonTokenConsumer}.
+ * <p>
+ * The type of the underlying non-blocking parser is selected based on the first
+ * chunk of data. Array-backed buffers are fed to the parser directly. Direct
+ * buffers are fed to the parser without copying where the JSON factory supports
+ * {@link ByteBuffer} input, or copied into a scratch array retained by
+ * the tokenizer otherwise.
+ * </p>
  */
 public final class JsonAsyncTokenizer {
 
     private final JsonFactory jsonFactory;
+    private final boolean byteBufferInput;
 
     private JsonTokenConsumer consumer;
     private JsonParser parser;
-    private ByteArrayFeeder inputFeeder;
+    private ByteArrayFeeder byteArrayFeeder;
+    private ByteBufferFeeder byteBufferFeeder;
+    private byte[] scratch;
 
     public JsonAsyncTokenizer(JsonFactory jsonFactory) {
         this.jsonFactory = jsonFactory;
+        this.byteBufferInput = JsonFactory.FORMAT_NAME_JSON.equals(jsonFactory.getFormatName());
     }
 
     /**
@@ -47,11 +59,22 @@ public JsonAsyncTokenizer(JsonFactory jsonFactory) {
      */
     public void initialize(JsonTokenConsumer consumer) throws IOException {
         Objects.requireNonNull(consumer, "Consumer");
-        this.parser = jsonFactory.createNonBlockingByteArrayParser();
-        this.inputFeeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.parser = null;
+        this.byteArrayFeeder = null;
+        this.byteBufferFeeder = null;
         this.consumer = consumer;
     }
 
+    private void createParser(boolean hasArray) throws IOException {
+        if (hasArray || !byteBufferInput) {
+            parser = jsonFactory.createNonBlockingByteArrayParser();
+            byteArrayFeeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        } else {
+            parser = jsonFactory.createNonBlockingByteBufferParser();
+            byteBufferFeeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        }
+    }
+
     private void processData() throws IOException {
         for (;;) {
             JsonToken jsonToken = parser.nextToken();
@@ -76,14 +99,23 @@ public void consume(ByteBuffer data) throws IOException {
         if (consumer == null) {
             return;
         }
-        if (data.hasArray()) {
+        if (parser == null) {
+            createParser(data.hasArray());
+        }
+        if (byteBufferFeeder != null) {
+            byteBufferFeeder.feedInput(data);
+            data.position(data.limit());
+        } else if (data.hasArray()) {
             int off = data.arrayOffset();
-            inputFeeder.feedInput(data.array(), off + data.position(), off + data.limit());
+            byteArrayFeeder.feedInput(data.array(), off + data.position(), off + data.limit());
             data.position(data.limit());
         } else {
-            byte[] tmp = new byte[data.remaining()];
-            data.get(tmp);
-            inputFeeder.feedInput(tmp, 0, tmp.length);
+            int len = data.remaining();
+            if (scratch == null || scratch.length < len) {
+                scratch = new byte[len];
+            }
+            data.get(scratch, 0, len);
+            byteArrayFeeder.feedInput(scratch, 0, len);
         }
         processData();
     }
@@ -96,10 +128,14 @@ public void streamEnd() throws IOException {
         if (consumer == null) {
             return;
         }
-        inputFeeder.endOfInput();
+        if (parser == null) {
+            createParser(true);
+        }
+        parser.getNonBlockingInputFeeder().endOfInput();
         processData();
         consumer.accept(JsonTokenId.ID_NO_TOKEN, parser);
-        inputFeeder = null;
+        byteArrayFeeder = null;
+        byteBufferFeeder = null;
         parser = null;
         consumer = null;
     }
@@ -15,12 +15,13 @@
  */
 package com.ok2c.hc5.json;
 
-import java.util.LinkedList;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ContainerNode;
 import com.fasterxml.jackson.databind.node.JsonNodeCreator;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -48,71 +49,107 @@ public static JsonTokenConsumer createTokenConsumer(Consumer<JsonNode> consumer)
         return new JsonTokenEventHandlerAdaptor(new JsonNodeAssembler(JsonNodeFactory.instance, consumer));
     }
 
+    public static JsonTokenConsumer createTokenConsumer(Consumer<JsonNode> consumer, FieldNameCache fieldNameCache) {
+        return new JsonTokenEventHandlerAdaptor(new JsonNodeAssembler(JsonNodeFactory.instance, consumer), fieldNameCache);
+    }
+
+    private static final int INITIAL_DEPTH = 16;
+
     private final JsonNodeCreator jsonNodeCreator;
     private final Consumer<JsonNode> consumer;
-    private final LinkedList<ContainerNode<?>> nodeStack;
+
+    // Parent containers by nesting level. Exactly one of the two stacks
+    // holds the container at each level, which also tells its kind.
+    private ObjectNode[] objectStack;
+    private ArrayNode[] arrayStack;
+    private int depth;
 
     private JsonNode root;
-    private ContainerNode<?> currentObject;
+    private ObjectNode currentObject;
+    private ArrayNode currentArray;
     private String currentField;
     private JsonNode result;
 
     public JsonNodeAssembler(JsonNodeCreator jsonNodeCreator, Consumer<JsonNode> consumer) {
         this.jsonNodeCreator = jsonNodeCreator != null ? jsonNodeCreator : JsonNodeFactory.instance;
         this.consumer = consumer;
-        this.nodeStack = new LinkedList<>();
+        this.objectStack = new ObjectNode[INITIAL_DEPTH];
+        this.arrayStack = new ArrayNode[INITIAL_DEPTH];
+    }
+
+    private void push() {
+        if (depth == objectStack.length) {
+            objectStack = Arrays.copyOf(objectStack, depth * 2);
+            arrayStack = Arrays.copyOf(arrayStack, depth * 2);
+        }
+        objectStack[depth] = currentObject;
+        arrayStack[depth] = currentArray;
+        depth++;
+    }
+
+    private void pop() {
+        if (depth > 0) {
+            depth--;
+            currentObject = objectStack[depth];
+            currentArray = arrayStack[depth];
+            objectStack[depth] = null;
+            arrayStack[depth] = null;
+        } else {
+            currentObject = null;
+            currentArray = null;
+        }
+    }
+
+    private IllegalStateException noCurrentNode() {
+        return new IllegalStateException("Current node is null");
     }
 
     @Override
     public void objectStart() {
+        ObjectNode newJsonObject;
         if (currentObject != null) {
-            ObjectNode newJsonObject;
-            if (currentObject instanceof ObjectNode) {
-                newJsonObject = ((ObjectNode) currentObject).putObject(currentField);
-            } else if (currentObject instanceof ArrayNode) {
-                newJsonObject = ((ArrayNode) currentObject).addObject();
-            } else {
-                throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
-            }
-            nodeStack.addLast(currentObject);
-            currentObject = newJsonObject;
+            newJsonObject = currentObject.putObject(currentField);
+            push();
+        } else if (currentArray != null) {
+            newJsonObject = currentArray.addObject();
+            push();
         } else {
-            currentObject = jsonNodeCreator.objectNode();
+            newJsonObject = jsonNodeCreator.objectNode();
             if (root == null) {
-                root = currentObject;
+                root = newJsonObject;
             }
         }
+        currentObject = newJsonObject;
+        currentArray = null;
     }
 
     @Override
     public void objectEnd() {
-        currentObject = !nodeStack.isEmpty() ? nodeStack.removeLast() : null;
+        pop();
     }
 
     @Override
     public void arrayStart() {
+        ArrayNode newJsonArray;
         if (currentObject != null) {
-            ArrayNode newJsonObject;
-            if (currentObject instanceof ObjectNode) {
-                newJsonObject = ((ObjectNode) currentObject).putArray(currentField);
-            } else if (currentObject instanceof ArrayNode) {
-                newJsonObject = ((ArrayNode) currentObject).addArray();
-            } else {
-                throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
-            }
-            nodeStack.addLast(currentObject);
-            currentObject = newJsonObject;
+            newJsonArray = currentObject.putArray(currentField);
+            push();
+        } else if (currentArray != null) {
+            newJsonArray = currentArray.addArray();
+            push();
         } else {
-            currentObject = jsonNodeCreator.arrayNode();
+            newJsonArray = jsonNodeCreator.arrayNode();
             if (root == null) {
-                root = currentObject;
+                root = newJsonArray;
             }
         }
+        currentObject = null;
+        currentArray = newJsonArray;
     }
 
     @Override
     public void arrayEnd() {
-        currentObject = !nodeStack.isEmpty() ? nodeStack.removeLast() : null;
+        pop();
     }
 
     @Override
@@ -122,80 +159,100 @@ public void field(String name) {
 
     @Override
     public void embeddedObject(Object object) {
-        if (currentObject == null) {
-            throw new IllegalStateException("Current node is null");
-        } else if (currentObject instanceof ObjectNode) {
-            ((ObjectNode) currentObject).putPOJO(currentField, object);
-        } else if (currentObject instanceof ArrayNode) {
-            ((ArrayNode) currentObject).addPOJO(object);
+        if (currentObject != null) {
+            currentObject.putPOJO(currentField, object);
+        } else if (currentArray != null) {
+            currentArray.addPOJO(object);
         } else {
-            throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
+            throw noCurrentNode();
         }
     }
 
     @Override
     public void value(String value) {
-        if (currentObject instanceof ObjectNode) {
-            ((ObjectNode) currentObject).put(currentField, value);
-        } else if (currentObject instanceof ArrayNode) {
-            ((ArrayNode) currentObject).add(value);
+        if (currentObject != null) {
+            currentObject.put(currentField, value);
+        } else if (currentArray != null) {
+            currentArray.add(value);
         } else {
-            throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
+            throw noCurrentNode();
         }
     }
 
     @Override
     public void value(int value) {
-        if (currentObject instanceof ObjectNode) {
-            ((ObjectNode) currentObject).put(currentField, value);
-        } else if (currentObject instanceof ArrayNode) {
-            ((ArrayNode) currentObject).add(value);
+        if (currentObject != null) {
+            currentObject.put(currentField, value);
+        } else if (currentArray != null) {
+            currentArray.add(value);
         } else {
-            throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
+            throw noCurrentNode();
         }
     }
 
     @Override
     public void value(long value) {
-        if (currentObject instanceof ObjectNode) {
-            ((ObjectNode) currentObject).put(currentField, value);
-        } else if (currentObject instanceof ArrayNode) {
-            ((ArrayNode) currentObject).add(value);
+        if (currentObject != null) {
+            currentObject.put(currentField, value);
+        } else if (currentArray != null) {
+            currentArray.add(value);
         } else {
-            throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
+            throw noCurrentNode();
         }
     }
 
     @Override
     public void value(double value) {
-        if (currentObject instanceof ObjectNode) {
-            ((ObjectNode) currentObject).put(currentField, value);
-        } else if (currentObject instanceof ArrayNode) {
-            ((ArrayNode) currentObject).add(value);
+        if (currentObject != null) {
+            currentObject.put(currentField, value);
+        } else if (currentArray != null) {
+            currentArray.add(value);
+        } else {
+            throw noCurrentNode();
+        }
+    }
+
+    @Override
+    public void value(BigInteger value) {
+        if (currentObject != null) {
+            currentObject.put(currentField, value);
+        } else if (currentArray != null) {
+            currentArray.add(value);
         } else {
-            throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
+            throw noCurrentNode();
+        }
+    }
+
+    @Override
+    public void value(BigDecimal value) {
+        if (currentObject != null) {
+            currentObject.put(currentField, value);
+        } else if (currentArray != null) {
+            currentArray.add(value);
+        } else {
+            throw noCurrentNode();
         }
     }
 
     @Override
     public void value(boolean value) {
-        if (currentObject instanceof ObjectNode) {
-            ((ObjectNode) currentObject).put(currentField, value);
-        } else if (currentObject instanceof ArrayNode) {
-            ((ArrayNode) currentObject).add(value);
+        if (currentObject != null) {
+            currentObject.put(currentField, value);
+        } else if (currentArray != null) {
+            currentArray.add(value);
         } else {
-            throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
+            throw noCurrentNode();
         }
     }
 
     @Override
     public void valueNull() {
-        if (currentObject instanceof ObjectNode) {
-            ((ObjectNode) currentObject).putNull(currentField);
-        } else if (currentObject instanceof ArrayNode) {
-            ((ArrayNode) currentObject).addNull();
+        if (currentObject != null) {
+            currentObject.putNull(currentField);
+        } else if (currentArray != null) {
+            currentArray.addNull();
         } else {
-            throw new IllegalStateException("Unexpected node class: " + currentObject.getClass());
+            throw noCurrentNode();
         }
     }
 
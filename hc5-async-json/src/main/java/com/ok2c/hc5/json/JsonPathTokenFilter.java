@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonTokenId;
+
+/**
+ * {@link JsonTokenConsumer} decorator that passes on only the tokens of values
+ * matching any of the given JSON path expressions. Every matching value, scalar
+ * or structured, is passed on as a complete sequence of tokens without its field
+ * name. Subtrees that cannot contain a match are skipped by counting their
+ * opening and closing tokens only.
+ * <p>
+ * Supported are absolute paths consisting of child selectors: {@code $},
+ * {@code .name}, {@code ['name']}, {@code [index]}, {@code .*} and {@code [*]},
+ * for example {@code $.items[*].id} or {@code $.meta.next}. Up to 64 paths
+ * can be given.
+ * </p>
+ */
+public final class JsonPathTokenFilter implements JsonTokenConsumer {
+
+    private static final int ANY = 0;
+    private static final int FIELD = 1;
+    private static final int INDEX = 2;
+
+    private final JsonTokenConsumer tokenConsumer;
+    private final Step[][] paths;
+    private final long allPaths;
+
+    // Per nesting level state of containers that may contain matches
+    private final long[] alive;
+    private final boolean[] arrays;
+    private final int[] indexes;
+    private final String[] fields;
+    private int level;
+
+    // Depth of the subtree being passed on or skipped
+    private int emitDepth;
+    private int skipDepth;
+
+    public JsonPathTokenFilter(List<String> paths, JsonTokenConsumer tokenConsumer) {
+        Objects.requireNonNull(paths, "Paths");
+        if (paths.isEmpty() || paths.size() > 64) {
+            throw new IllegalArgumentException("Number of paths must be between 1 and 64: " + paths.size());
+        }
+        this.tokenConsumer = Objects.requireNonNull(tokenConsumer, "Consumer");
+        this.paths = new Step[paths.size()][];
+        int maxLength = 0;
+        for (int i = 0; i < this.paths.length; i++) {
+            this.paths[i] = parse(Objects.requireNonNull(paths.get(i), "Path"));
+            maxLength = Math.max(maxLength, this.paths[i].length);
+        }
+        this.allPaths = this.paths.length == 64 ? -1L : (1L << this.paths.length) - 1;
+        this.alive = new long[maxLength + 1];
+        this.arrays = new boolean[maxLength + 1];
+        this.indexes = new int[maxLength + 1];
+        this.fields = new String[maxLength + 1];
+    }
+
+    public JsonPathTokenFilter(String path, JsonTokenConsumer tokenConsumer) {
+        this(Collections.singletonList(path), tokenConsumer);
+    }
+
+    @Override
+    public void accept(int tokenId, JsonParser jsonParser) throws IOException {
+        if (skipDepth > 0) {
+            if (tokenId == JsonTokenId.ID_START_OBJECT || tokenId == JsonTokenId.ID_START_ARRAY) {
+                skipDepth++;
+            } else if (tokenId == JsonTokenId.ID_END_OBJECT || tokenId == JsonTokenId.ID_END_ARRAY) {
+                skipDepth--;
+            }
+            return;
+        }
+        if (emitDepth > 0) {
+            if (tokenId == JsonTokenId.ID_START_OBJECT || tokenId == JsonTokenId.ID_START_ARRAY) {
+                emitDepth++;
+            } else if (tokenId == JsonTokenId.ID_END_OBJECT || tokenId == JsonTokenId.ID_END_ARRAY) {
+                emitDepth--;
+            }
+            tokenConsumer.accept(tokenId, jsonParser);
+            return;
+        }
+        switch (tokenId) {
+            case JsonTokenId.ID_FIELD_NAME:
+                fields[level] = jsonParser.getText();
+                break;
+            case JsonTokenId.ID_END_OBJECT:
+            case JsonTokenId.ID_END_ARRAY:
+                fields[level] = null;
+                level--;
+                break;
+            case JsonTokenId.ID_NO_TOKEN:
+                level = 0;
+                tokenConsumer.accept(tokenId, jsonParser);
+                break;
+            default:
+                value(tokenId, jsonParser);
+        }
+    }
+
+    private void value(int tokenId, JsonParser jsonParser) throws IOException {
+        boolean container = tokenId == JsonTokenId.ID_START_OBJECT || tokenId == JsonTokenId.ID_START_ARRAY;
+        long matched;
+        if (level == 0) {
+            matched = allPaths;
+        } else {
+            matched = 0;
+            int stepIndex = level - 1;
+            boolean array = arrays[level];
+            int index = array ? indexes[level]++ : -1;
+            String field = array ? null : fields[level];
+            long candidates = alive[level];
+            while (candidates != 0) {
+                int i = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if (paths[i][stepIndex].matches(field, index)) {
+                    matched |= 1L << i;
+                }
+            }
+        }
+        if (matched == 0) {
+            if (container) {
+                skipDepth = 1;
+            }
+            return;
+        }
+        boolean completed = false;
+        long remaining = matched;
+        while (remaining != 0 && !completed) {
+            int i = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            completed = paths[i].length == level;
+        }
+        if (completed) {
+            if (container) {
+                emitDepth = 1;
+            }
+            tokenConsumer.accept(tokenId, jsonParser);
+            return;
+        }
+        if (!container) {
+            return;
+        }
+        level++;
+        alive[level] = matched;
+        arrays[level] = tokenId == JsonTokenId.ID_START_ARRAY;
+        indexes[level] = 0;
+        fields[level] = null;
+    }
+
+    static Step[] parse(String path) {
+        if (!path.startsWith("$")) {
+            throw new IllegalArgumentException("JSON path must start with '$': " + path);
+        }
+        List<Step> steps = new ArrayList<>();
+        int pos = 1;
+        while (pos < path.length()) {
+            char ch = path.charAt(pos);
+            if (ch == '.') {
+                int end = pos + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                String name = path.substring(pos + 1, end);
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Unsupported JSON path: " + path);
+                }
+                steps.add(name.equals("*") ? new Step(ANY, null, -1) : new Step(FIELD, name, -1));
+                pos = end;
+            } else if (ch == '[') {
+                int end = path.indexOf(']', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unbalanced brackets in JSON path: " + path);
+                }
+                String selector = path.substring(pos + 1, end).trim();
+                if (selector.equals("*")) {
+                    steps.add(new Step(ANY, null, -1));
+                } else if (selector.length() >= 2 && (selector.charAt(0) == '\'' || selector.charAt(0) == '"')
+                        && selector.charAt(selector.length() - 1) == selector.charAt(0)) {
+                    steps.add(new Step(FIELD, selector.substring(1, selector.length() - 1), -1));
+                } else {
+                    try {
+                        int index = Integer.parseInt(selector);
+                        if (index < 0) {
+                            throw new IllegalArgumentException("Unsupported JSON path: " + path);
+                        }
+                        steps.add(new Step(INDEX, null, index));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Unsupported JSON path: " + path);
+                    }
+                }
+                pos = end + 1;
+            } else {
+                throw new IllegalArgumentException("Unsupported JSON path: " + path);
+            }
+        }
+        return steps.toArray(new Step[0]);
+    }
+
+    static final class Step {
+
+        final int kind;
+        final String name;
+        final int index;
+
+        Step(int kind, String name, int index) {
+            this.kind = kind;
+            this.name = name;
+            this.index = index;
+        }
+
+        boolean matches(String field, int index) {
+            switch (kind) {
+                case FIELD:
+                    return field != null && field.equals(name);
+                case INDEX:
+                    return index == this.index;
+                default:
+                    return true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case FIELD:
+                    return "." + name;
+                case INDEX:
+                    return "[" + index + "]";
+                default:
+                    return "[*]";
+            }
+        }
+
+    }
+
+}
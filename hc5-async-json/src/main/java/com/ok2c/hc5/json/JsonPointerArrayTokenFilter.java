@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * {@link JsonTokenConsumer} decorator that passes on the tokens of elements of
+ * the array located by the given JSON Pointer (RFC 6901), such as {@code /data},
+ * anywhere in the document. Every array element is passed on as a complete sequence
+ * of tokens; the opening and closing tokens of the array itself are filtered out.
+ * The empty pointer selects the top level array.
+ * <p>
+ * Scalar values outside the array, such as pagination cursors next to the array,
+ * are passed to the optional field consumer along with their JSON Pointer
+ * as they are encountered. Structured values outside the array are not materialized.
+ * </p>
+ */
+public final class JsonPointerArrayTokenFilter implements JsonTokenConsumer {
+
+    private final JsonTokenConsumer tokenConsumer;
+    private final BiConsumer<String, JsonNode> fieldConsumer;
+    private final String[] names;
+    private final int[] indexes;
+
+    // Per nesting level state outside the array
+    private boolean[] arrays;
+    private String[] fields;
+    private int[] counters;
+    private int level;
+    private int prefixLevel;
+
+    // Depth of the array being streamed or -1
+    private int elementDepth;
+
+    public JsonPointerArrayTokenFilter(String arrayPointer,
+                                       JsonTokenConsumer tokenConsumer,
+                                       BiConsumer<String, JsonNode> fieldConsumer) {
+        Objects.requireNonNull(arrayPointer, "Array pointer");
+        this.tokenConsumer = Objects.requireNonNull(tokenConsumer, "Consumer");
+        this.fieldConsumer = fieldConsumer;
+        int segments = 0;
+        for (JsonPointer pointer = JsonPointer.compile(arrayPointer); !pointer.matches(); pointer = pointer.tail()) {
+            segments++;
+        }
+        this.names = new String[segments];
+        this.indexes = new int[segments];
+        int i = 0;
+        for (JsonPointer pointer = JsonPointer.compile(arrayPointer); !pointer.matches(); pointer = pointer.tail()) {
+            names[i] = pointer.getMatchingProperty();
+            indexes[i] = pointer.getMatchingIndex();
+            i++;
+        }
+        this.arrays = new boolean[8];
+        this.fields = new String[8];
+        this.counters = new int[8];
+        this.elementDepth = -1;
+    }
+
+    public JsonPointerArrayTokenFilter(String arrayPointer, JsonTokenConsumer tokenConsumer) {
+        this(arrayPointer, tokenConsumer, null);
+    }
+
+    @Override
+    public void accept(int tokenId, JsonParser jsonParser) throws IOException {
+        if (elementDepth >= 0) {
+            switch (tokenId) {
+                case JsonTokenId.ID_START_OBJECT:
+                case JsonTokenId.ID_START_ARRAY:
+                    elementDepth++;
+                    break;
+                case JsonTokenId.ID_END_OBJECT:
+                    elementDepth--;
+                    break;
+                case JsonTokenId.ID_END_ARRAY:
+                    if (elementDepth == 0) {
+                        elementDepth = -1;
+                        return;
+                    }
+                    elementDepth--;
+                    break;
+            }
+            tokenConsumer.accept(tokenId, jsonParser);
+            return;
+        }
+        switch (tokenId) {
+            case JsonTokenId.ID_FIELD_NAME:
+                fields[level] = jsonParser.getText();
+                break;
+            case JsonTokenId.ID_END_OBJECT:
+            case JsonTokenId.ID_END_ARRAY:
+                level--;
+                if (prefixLevel > level) {
+                    prefixLevel = level;
+                }
+                if (level > 0 && arrays[level]) {
+                    counters[level]++;
+                }
+                break;
+            case JsonTokenId.ID_NO_TOKEN:
+                level = 0;
+                prefixLevel = 0;
+                tokenConsumer.accept(tokenId, jsonParser);
+                break;
+            default:
+                value(tokenId, jsonParser);
+        }
+    }
+
+    private void value(int tokenId, JsonParser jsonParser) throws IOException {
+        boolean onPointer = prefixLevel == level && level <= names.length;
+        if (onPointer && level > 0) {
+            int segment = level - 1;
+            onPointer = arrays[level]
+                    ? counters[level] == indexes[segment]
+                    : names[segment].equals(fields[level]);
+        }
+        if (onPointer && level == names.length && tokenId == JsonTokenId.ID_START_ARRAY) {
+            if (level > 0 && arrays[level]) {
+                counters[level]++;
+            }
+            elementDepth = 0;
+            return;
+        }
+        if (tokenId == JsonTokenId.ID_START_OBJECT || tokenId == JsonTokenId.ID_START_ARRAY) {
+            level++;
+            if (level == arrays.length) {
+                arrays = Arrays.copyOf(arrays, level * 2);
+                fields = Arrays.copyOf(fields, level * 2);
+                counters = Arrays.copyOf(counters, level * 2);
+            }
+            arrays[level] = tokenId == JsonTokenId.ID_START_ARRAY;
+            fields[level] = null;
+            counters[level] = 0;
+            if (onPointer) {
+                prefixLevel = level;
+            }
+            return;
+        }
+        if (fieldConsumer != null) {
+            fieldConsumer.accept(currentPointer(), scalarValue(tokenId, jsonParser));
+        }
+        if (level > 0 && arrays[level]) {
+            counters[level]++;
+        }
+    }
+
+    private String currentPointer() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 1; i <= level; i++) {
+            buf.append('/');
+            if (arrays[i]) {
+                buf.append(counters[i]);
+            } else {
+                String field = fields[i];
+                for (int n = 0; n < field.length(); n++) {
+                    char ch = field.charAt(n);
+                    if (ch == '~') {
+                        buf.append("~0");
+                    } else if (ch == '/') {
+                        buf.append("~1");
+                    } else {
+                        buf.append(ch);
+                    }
+                }
+            }
+        }
+        return buf.toString();
+    }
+
+    private static JsonNode scalarValue(int tokenId, JsonParser jsonParser) throws IOException {
+        JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+        switch (tokenId) {
+            case JsonTokenId.ID_STRING:
+                return nodeFactory.textNode(jsonParser.getText());
+            case JsonTokenId.ID_NUMBER_INT:
+                switch (jsonParser.getNumberType()) {
+                    case INT:
+                        return nodeFactory.numberNode(jsonParser.getIntValue());
+                    case LONG:
+                        return nodeFactory.numberNode(jsonParser.getLongValue());
+                    default:
+                        return nodeFactory.numberNode(jsonParser.getBigIntegerValue());
+                }
+            case JsonTokenId.ID_NUMBER_FLOAT:
+                return nodeFactory.numberNode(jsonParser.getDoubleValue());
+            case JsonTokenId.ID_TRUE:
+                return nodeFactory.booleanNode(true);
+            case JsonTokenId.ID_FALSE:
+                return nodeFactory.booleanNode(false);
+            case JsonTokenId.ID_EMBEDDED_OBJECT:
+                return nodeFactory.pojoNode(jsonParser.getEmbeddedObject());
+            default:
+                return nodeFactory.nullNode();
+        }
+    }
+
+}
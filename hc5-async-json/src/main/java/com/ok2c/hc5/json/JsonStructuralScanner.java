@@ -0,0 +1,266 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Incremental structural scanner that locates the boundaries of top level array
+ * elements in raw JSON content without tokenizing it.
+ * <p>
+ * The scanner only tracks string literals, escape sequences and nesting of objects
+ * and arrays. Content between structural characters is skipped over byte by byte
+ * and string literals are skipped up to the next quote or backslash. Elements get
+ * passed to the {@link ElementHandler} as byte ranges with surrounding whitespace
+ * removed, directly from the input buffers where possible. Only elements split
+ * across input buffers get copied. Elements are not validated; malformed elements
+ * are expected to be rejected by the parser they get passed to.
+ * </p>
+ */
+public final class JsonStructuralScanner {
+
+    /**
+     * Recipient of top level array elements.
+     */
+    public interface ElementHandler {
+
+        /**
+         * Triggered when the opening bracket of the top level array is found.
+         */
+        default void startArray() throws IOException {
+        }
+
+        /**
+         * Triggered for each element of the top level array.
+         *
+         * @param buf the buffer containing the element.
+         * @param off the offset of the element.
+         * @param len the length of the element.
+         */
+        void element(byte[] buf, int off, int len) throws IOException;
+
+        /**
+         * Triggered when the closing bracket of the top level array is found.
+         */
+        default void endArray() throws IOException {
+        }
+
+    }
+
+    private final ElementHandler elementHandler;
+
+    private byte[] elementBuf;
+    private int elementLen;
+    private byte[] scratch;
+    private int depth;
+    private boolean inString;
+    private boolean escape;
+    private boolean started;
+    private boolean ended;
+    private long count;
+
+    public JsonStructuralScanner(ElementHandler elementHandler) {
+        this.elementHandler = Objects.requireNonNull(elementHandler, "Element handler");
+    }
+
+    /**
+     * Returns {@code true} once the opening bracket of the top level array has been found.
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    public void consume(ByteBuffer data) throws IOException {
+        if (data == null || !data.hasRemaining()) {
+            return;
+        }
+        byte[] buf;
+        int off;
+        int len = data.remaining();
+        if (data.hasArray()) {
+            buf = data.array();
+            off = data.arrayOffset() + data.position();
+        } else {
+            if (scratch == null || scratch.length < len) {
+                scratch = new byte[len];
+            }
+            data.get(scratch, 0, len);
+            buf = scratch;
+            off = 0;
+        }
+        data.position(data.limit());
+        scan(buf, off, off + len);
+    }
+
+    private void scan(byte[] buf, int off, int end) throws IOException {
+        int start = off;
+        for (int i = off; i < end; i++) {
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                    continue;
+                }
+                // Skip over string content up to the next quote or backslash
+                while (i < end && buf[i] != '"' && buf[i] != '\\') {
+                    i++;
+                }
+                if (i == end) {
+                    break;
+                }
+                if (buf[i] == '\\') {
+                    escape = true;
+                } else {
+                    inString = false;
+                }
+                continue;
+            }
+            byte b = buf[i];
+            switch (b) {
+                case '"':
+                    checkInArray(b);
+                    inString = true;
+                    break;
+                case '{':
+                    checkInArray(b);
+                    depth++;
+                    break;
+                case '[':
+                    if (depth == 0) {
+                        if (started) {
+                            throw unexpected(b);
+                        }
+                        started = true;
+                        depth = 1;
+                        start = i + 1;
+                        elementHandler.startArray();
+                    } else {
+                        depth++;
+                    }
+                    break;
+                case '}':
+                    if (depth <= 1) {
+                        throw unexpected(b);
+                    }
+                    depth--;
+                    break;
+                case ']':
+                    if (depth == 0) {
+                        throw unexpected(b);
+                    }
+                    if (depth == 1) {
+                        element(buf, start, i, true);
+                        depth = 0;
+                        ended = true;
+                        elementHandler.endArray();
+                    } else {
+                        depth--;
+                    }
+                    break;
+                case ',':
+                    checkInArray(b);
+                    if (depth == 1) {
+                        element(buf, start, i, false);
+                        start = i + 1;
+                    }
+                    break;
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    break;
+                default:
+                    checkInArray(b);
+            }
+        }
+        if (depth > 0 && start < end) {
+            append(buf, start, end - start);
+        }
+    }
+
+    private void checkInArray(byte b) throws JsonMessageException {
+        if (depth == 0) {
+            throw unexpected(b);
+        }
+    }
+
+    private JsonMessageException unexpected(byte b) {
+        if (!started) {
+            return new JsonMessageException("Top level array expected, found '" + (char) b + "'");
+        }
+        return new JsonMessageException("Unexpected character '" + (char) b + "'");
+    }
+
+    private void element(byte[] buf, int start, int end, boolean last) throws IOException {
+        byte[] b;
+        int off;
+        int len;
+        if (elementLen > 0) {
+            append(buf, start, end - start);
+            b = elementBuf;
+            off = 0;
+            len = elementLen;
+            elementLen = 0;
+        } else {
+            b = buf;
+            off = start;
+            len = end - start;
+        }
+        while (len > 0 && isWhitespace(b[off])) {
+            off++;
+            len--;
+        }
+        while (len > 0 && isWhitespace(b[off + len - 1])) {
+            len--;
+        }
+        if (len == 0) {
+            if (last && count == 0) {
+                return;
+            }
+            throw new JsonMessageException("Empty array element");
+        }
+        count++;
+        elementHandler.element(b, off, len);
+    }
+
+    private void append(byte[] buf, int off, int len) {
+        if (elementBuf == null) {
+            elementBuf = new byte[Math.max(len, 1024)];
+        } else if (elementLen + len > elementBuf.length) {
+            elementBuf = Arrays.copyOf(elementBuf, Math.max(elementLen + len, elementBuf.length << 1));
+        }
+        System.arraycopy(buf, off, elementBuf, elementLen, len);
+        elementLen += len;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * Signals the end of content.
+     *
+     * @throws JsonMessageException if the top level array has not been closed.
+     */
+    public void streamEnd() throws IOException {
+        if (started && !ended) {
+            throw new JsonMessageException("Unexpected end of stream");
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+/**
+ * {@link JsonTokenEventHandler} that receives textual values as a range of characters
+ * in a buffer owned by the JSON parser instead of a {@link String}.
+ * <p>
+ * {@link JsonTokenEventHandlerAdaptor} passes textual values of JSON tokens
+ * to {@link #value(char[], int, int)} without materializing them as {@link String}s.
+ * The buffer content is valid only for the duration of the call and must not be
+ * modified or retained by the handler.
+ * </p>
+ */
+public interface JsonTextEventHandler extends JsonTokenEventHandler {
+
+    /**
+     * Triggered to signal occurrence of a textual value.
+     *
+     * @param text   the buffer containing the value.
+     * @param offset the offset of the first character of the value.
+     * @param length the number of characters of the value.
+     */
+    void value(char[] text, int offset, int length);
+
+    /**
+     * Triggered to signal occurrence of a textual value available as a {@link String}.
+     * By default the value is passed to {@link #value(char[], int, int)}.
+     */
+    @Override
+    default void value(String value) {
+        value(value.toCharArray(), 0, value.length());
+    }
+
+}
@@ -15,6 +15,9 @@
  */
 package com.ok2c.hc5.json;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
 /**
  * Represents a handler of JSON token events.
  */
@@ -70,6 +73,23 @@ public interface JsonTokenEventHandler {
      */
     void value(double value);
 
+    /**
+     * Triggered to signal occurrence of an integer value that does not fit
+     * into a long. By default the value is passed to {@link #value(double)}.
+     */
+    default void value(BigInteger value) {
+        value(value.doubleValue());
+    }
+
+    /**
+     * Triggered to signal occurrence of a decimal value that cannot be represented
+     * as a double precision value. By default the value is passed
+     * to {@link #value(double)}.
+     */
+    default void value(BigDecimal value) {
+        value(value.doubleValue());
+    }
+
     /**
      * Triggered to signal occurrence of an boolean value.
      */
@@ -22,14 +22,28 @@
 
 /**
  * {@link JsonTokenConsumer} implementation that converts JSON tokens into
- * event signals for {@link JsonTokenEventHandler}.
+ * event signals for {@link JsonTokenEventHandler}. Textual values are passed to
+ * {@link JsonTextEventHandler}s as character ranges.
  */
 public final class JsonTokenEventHandlerAdaptor implements JsonTokenConsumer {
 
     private final JsonTokenEventHandler eventHandler;
+    private final JsonTextEventHandler textEventHandler;
+    private final FieldNameCache fieldNameCache;
 
-    public JsonTokenEventHandlerAdaptor(JsonTokenEventHandler eventHandler) {
+    /**
+     * @param eventHandler   the token event handler.
+     * @param fieldNameCache optional cache to look up field names with. If not given
+     *                       field names are passed to the handler as returned by the parser.
+     */
+    public JsonTokenEventHandlerAdaptor(JsonTokenEventHandler eventHandler, FieldNameCache fieldNameCache) {
         this.eventHandler = eventHandler;
+        this.textEventHandler = eventHandler instanceof JsonTextEventHandler ? (JsonTextEventHandler) eventHandler : null;
+        this.fieldNameCache = fieldNameCache;
+    }
+
+    public JsonTokenEventHandlerAdaptor(JsonTokenEventHandler eventHandler) {
+        this(eventHandler, null);
     }
 
     public void accept(int tokenId, JsonParser jsonParser) throws IOException {
@@ -47,22 +61,41 @@ public void accept(int tokenId, JsonParser jsonParser) throws IOException {
                 eventHandler.arrayEnd();
                 break;
             case JsonTokenId.ID_FIELD_NAME:
-                eventHandler.field(jsonParser.getText());
+                final String name = jsonParser.getText();
+                eventHandler.field(fieldNameCache != null ? fieldNameCache.lookup(name) : name);
                 break;
             case JsonTokenId.ID_STRING:
-                eventHandler.value(jsonParser.getText());
+                if (textEventHandler != null) {
+                    textEventHandler.value(jsonParser.getTextCharacters(), jsonParser.getTextOffset(), jsonParser.getTextLength());
+                } else {
+                    eventHandler.value(jsonParser.getText());
+                }
                 break;
             case JsonTokenId.ID_NUMBER_INT:
-                final JsonParser.NumberType numberType = jsonParser.getNumberType();
-                final Number numberValue = jsonParser.getNumberValue();
-                if (numberType == JsonParser.NumberType.LONG) {
-                    eventHandler.value(numberValue.longValue());
-                } else {
-                    eventHandler.value(numberValue.intValue());
+                switch (jsonParser.getNumberType()) {
+                    case INT:
+                        eventHandler.value(jsonParser.getIntValue());
+                        break;
+                    case LONG:
+                        eventHandler.value(jsonParser.getLongValue());
+                        break;
+                    default:
+                        eventHandler.value(jsonParser.getBigIntegerValue());
                 }
                 break;
             case JsonTokenId.ID_NUMBER_FLOAT:
-                eventHandler.value(jsonParser.getDoubleValue());
+                if (jsonParser.getNumberType() == JsonParser.NumberType.BIG_DECIMAL) {
+                    eventHandler.value(jsonParser.getDecimalValue());
+                } else {
+                    final double doubleValue = jsonParser.getDoubleValue();
+                    // Numbers out of the double range are passed on as decimals.
+                    // Non-numeric values such as 'Infinity' do not end with a digit.
+                    if (Double.isInfinite(doubleValue) && isNumeric(jsonParser.getText())) {
+                        eventHandler.value(jsonParser.getDecimalValue());
+                    } else {
+                        eventHandler.value(doubleValue);
+                    }
+                }
                 break;
             case JsonTokenId.ID_TRUE:
                 eventHandler.value(true);
@@ -85,4 +118,8 @@ public void accept(int tokenId, JsonParser jsonParser) throws IOException {
 
     }
 
+    private static boolean isNumeric(String text) {
+        return !text.isEmpty() && Character.isDigit(text.charAt(text.length() - 1));
+    }
+
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+import java.io.IOException;
+
+/**
+ * Abstract result capacity channel. A recipient of result objects can use this
+ * channel to signal its ability to accept more results.
+ */
+@FunctionalInterface
+public interface ResultCapacityChannel {
+
+    /**
+     * Increments the number of result objects the recipient is able to accept.
+     *
+     * @param increment the number of additional result objects.
+     */
+    void update(int increment) throws IOException;
+
+}
@@ -16,34 +16,146 @@
 package com.ok2c.hc5.json.bulk;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.ok2c.hc5.json.JsonAsyncTokenizer;
+import com.ok2c.hc5.json.JsonMessageException;
+import com.ok2c.hc5.json.JsonPointerArrayTokenFilter;
 import com.ok2c.hc5.json.JsonResultSink;
+import com.ok2c.hc5.json.JsonStructuralScanner;
+import com.ok2c.hc5.json.JsonTokenConsumer;
 import com.ok2c.hc5.json.TokenBufferAssembler;
 import com.ok2c.hc5.json.TopLevelArrayTokenFilter;
 
 /**
  * Event-driven bulk JSON reader that can read arrays of objects while buffering only a single
- * array element in memory.
+ * array element in memory. The array can be the top level one or located anywhere in
+ * the document by a JSON Pointer.
+ * <p>
+ * If constructed with an {@link Executor} such as a {@link java.util.concurrent.ForkJoinPool}
+ * array elements get decoded in parallel by the executor. No more than {@code maxInFlight}
+ * elements are buffered or being decoded at a time; the feeding thread blocks
+ * in {@link #consume(ByteBuffer)} until an element slot becomes available. Decoded
+ * elements are passed to the {@link JsonResultSink} one at a time, either in
+ * the order of their completion or, if {@code ordered}, in the order of their
+ * appearance in the array. {@link JsonResultSink#end()} is called only once all
+ * elements have been delivered.
+ * </p>
+ * <p>
+ * As {@link #consume(ByteBuffer)} and {@link #streamEnd()} may block in this mode,
+ * a reader with an executor must not be fed from an I/O dispatch thread such as
+ * one of an HTTP I/O reactor. Feed the reader from a dedicated thread instead.
+ * </p>
+ * <p>
+ * If constructed with {@code indexed} set, elements of the top level array are
+ * located by a {@link JsonStructuralScanner} that only tracks strings and nesting
+ * instead of tokenizing the content, and each element gets parsed straight from
+ * its bytes. With an executor this moves all tokenizing off the feeding thread.
+ * Arrays located by a JSON Pointer are always tokenized.
+ * </p>
  */
 public final class JsonBulkArrayReader {
 
+    private static final Object NO_RESULT = new Object();
+
     private final ObjectMapper objectMapper;
     private final JsonAsyncTokenizer jsonTokenizer;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final boolean ordered;
+    private final boolean indexed;
 
-    public JsonBulkArrayReader(ObjectMapper objectMapper) {
+    private volatile ParallelDecoder<?> parallelDecoder;
+    private volatile JsonStructuralScanner structuralScanner;
+
+    public JsonBulkArrayReader(ObjectMapper objectMapper, Executor executor, int maxInFlight, boolean ordered,
+                               boolean indexed) {
         this.objectMapper = objectMapper;
         this.jsonTokenizer = new JsonAsyncTokenizer(objectMapper.getFactory());
+        this.executor = executor;
+        if (executor != null && maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight elements must be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+        this.indexed = indexed;
+    }
+
+    public JsonBulkArrayReader(ObjectMapper objectMapper, Executor executor, int maxInFlight, boolean ordered) {
+        this(objectMapper, executor, maxInFlight, ordered, false);
+    }
+
+    public JsonBulkArrayReader(ObjectMapper objectMapper) {
+        this(objectMapper, null, 0, true);
+    }
+
+    private <T> T decode(TokenBuffer tokenBuffer, TypeReference<T> typeReference) throws IOException {
+        JsonParser jsonParser = tokenBuffer != null ? tokenBuffer.asParserOnFirstToken() : null;
+        return jsonParser != null ? objectMapper.readValue(jsonParser, typeReference) : null;
     }
 
     public <T> void initialize(TypeReference<T> typeReference, JsonResultSink<T> resultSink) throws IOException {
-        this.jsonTokenizer.initialize(new TopLevelArrayTokenFilter(new TokenBufferAssembler(new JsonResultSink<TokenBuffer>() {
+        if (indexed) {
+            initializeIndexed(typeReference, resultSink);
+        } else {
+            initialize(TopLevelArrayTokenFilter::new, typeReference, resultSink);
+        }
+    }
+
+    /**
+     * Initializes the reader to read elements of the array located by the given
+     * JSON Pointer anywhere in the document, such as {@code /data}. Scalar values
+     * outside the array are passed to the optional field consumer along with their
+     * JSON Pointer.
+     *
+     * @param arrayPointer  the JSON Pointer of the array.
+     * @param typeReference the type of array elements.
+     * @param resultSink    the recipient of array elements.
+     * @param fieldConsumer optional recipient of scalar values outside the array.
+     * @see JsonPointerArrayTokenFilter
+     */
+    public <T> void initialize(String arrayPointer,
+                               TypeReference<T> typeReference,
+                               JsonResultSink<T> resultSink,
+                               BiConsumer<String, JsonNode> fieldConsumer) throws IOException {
+        Objects.requireNonNull(arrayPointer, "Array pointer");
+        initialize(
+                tokenConsumer -> new JsonPointerArrayTokenFilter(arrayPointer, tokenConsumer, fieldConsumer),
+                typeReference,
+                resultSink);
+    }
+
+    private <T> void initialize(UnaryOperator<JsonTokenConsumer> tokenFilter,
+                                TypeReference<T> typeReference,
+                                JsonResultSink<T> resultSink) throws IOException {
+        this.structuralScanner = null;
+        if (executor != null) {
+            ParallelDecoder<T> decoder = new ParallelDecoder<>(typeReference, resultSink);
+            this.parallelDecoder = decoder;
+            this.jsonTokenizer.initialize(tokenFilter.apply(new TokenBufferAssembler(decoder)));
+            return;
+        }
+        this.parallelDecoder = null;
+        this.jsonTokenizer.initialize(tokenFilter.apply(new TokenBufferAssembler(new JsonResultSink<TokenBuffer>() {
 
             @Override
             public void begin(int sizeHint) {
@@ -53,8 +165,7 @@ public void begin(int sizeHint) {
             @Override
             public void accept(TokenBuffer tokenBuffer) {
                 try {
-                    JsonParser jsonParser = tokenBuffer != null ? tokenBuffer.asParserOnFirstToken() : null;
-                    T result = jsonParser != null ? objectMapper.readValue(jsonParser, typeReference) : null;
+                    T result = decode(tokenBuffer, typeReference);
                     if (result != null) {
                         resultSink.accept(result);
                     }
@@ -71,16 +182,210 @@ public void end() {
         })));
     }
 
+    private <T> void initializeIndexed(TypeReference<T> typeReference, JsonResultSink<T> resultSink) {
+        Objects.requireNonNull(resultSink, "Result sink");
+        // The scanner does not validate elements, so each must hold exactly one value
+        ObjectReader objectReader = objectMapper.readerFor(typeReference)
+                .with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        ParallelDecoder<T> decoder = executor != null ? new ParallelDecoder<>(typeReference, resultSink) : null;
+        this.parallelDecoder = decoder;
+        this.structuralScanner = new JsonStructuralScanner(new JsonStructuralScanner.ElementHandler() {
+
+            @Override
+            public void startArray() {
+                resultSink.begin(-1);
+            }
+
+            @Override
+            public void element(byte[] buf, int off, int len) throws IOException {
+                if (decoder != null) {
+                    // Input buffers get reused once consumed
+                    byte[] element = Arrays.copyOfRange(buf, off, off + len);
+                    decoder.submit(() -> objectReader.readValue(element));
+                } else {
+                    T result = objectReader.readValue(buf, off, len);
+                    if (result != null) {
+                        resultSink.accept(result);
+                    }
+                }
+            }
+
+            @Override
+            public void endArray() {
+                if (decoder != null) {
+                    decoder.end();
+                } else {
+                    resultSink.end();
+                }
+            }
+
+        });
+    }
+
     public void consume(ByteBuffer data) throws IOException {
+        JsonStructuralScanner scanner = structuralScanner;
+        if (scanner != null) {
+            try {
+                scanner.consume(data);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            checkFailure();
+            return;
+        }
         try {
             jsonTokenizer.consume(data);
         } catch (UncheckedIOException ex) {
             throw ex.getCause();
         }
+        checkFailure();
     }
 
     public void streamEnd() throws IOException {
-        jsonTokenizer.streamEnd();
+        JsonStructuralScanner scanner = structuralScanner;
+        if (scanner != null) {
+            try {
+                scanner.streamEnd();
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            if (!scanner.isStarted()) {
+                throw new JsonMessageException("Top level array expected");
+            }
+            checkFailure();
+            return;
+        }
+        try {
+            jsonTokenizer.streamEnd();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        ParallelDecoder<?> decoder = parallelDecoder;
+        Exception cause = decoder != null ? decoder.failure.get() : null;
+        if (cause != null) {
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new JsonMessageException("Array element decoding failed", cause);
+        }
+    }
+
+    private final class ParallelDecoder<T> implements JsonResultSink<TokenBuffer> {
+
+        private final TypeReference<T> typeReference;
+        private final JsonResultSink<T> resultSink;
+        private final Semaphore permits;
+        private final AtomicReference<Exception> failure;
+        private final Map<Long, Object> completed;
+
+        private long nextSubmitted;
+        private long nextDelivered;
+
+        ParallelDecoder(TypeReference<T> typeReference, JsonResultSink<T> resultSink) {
+            this.typeReference = typeReference;
+            this.resultSink = Objects.requireNonNull(resultSink, "Result sink");
+            this.permits = new Semaphore(maxInFlight);
+            this.failure = new AtomicReference<>();
+            this.completed = new HashMap<>();
+        }
+
+        @Override
+        public void begin(int sizeHint) {
+            resultSink.begin(sizeHint);
+        }
+
+        @Override
+        public void accept(TokenBuffer tokenBuffer) {
+            submit(() -> decode(tokenBuffer, typeReference));
+        }
+
+        void submit(ElementDecoder<T> elementDecoder) {
+            acquire(1);
+            long sequence = nextSubmitted;
+            try {
+                executor.execute(() -> {
+                    Object result;
+                    try {
+                        T value = failure.get() == null ? elementDecoder.decode() : null;
+                        result = value != null ? value : NO_RESULT;
+                    } catch (Exception ex) {
+                        failure.compareAndSet(null, ex);
+                        result = NO_RESULT;
+                    }
+                    complete(sequence, result);
+                });
+            } catch (RejectedExecutionException ex) {
+                permits.release();
+                JsonMessageException cause = new JsonMessageException("Array element decoding rejected", ex);
+                failure.compareAndSet(null, cause);
+                throw new UncheckedIOException(cause);
+            } catch (RuntimeException ex) {
+                permits.release();
+                throw ex;
+            }
+            nextSubmitted++;
+        }
+
+        private void complete(long sequence, Object result) {
+            if (!ordered) {
+                synchronized (this) {
+                    deliver(result);
+                }
+                permits.release();
+                return;
+            }
+            synchronized (this) {
+                completed.put(sequence, result);
+                Object next;
+                while ((next = completed.remove(nextDelivered)) != null) {
+                    nextDelivered++;
+                    deliver(next);
+                    permits.release();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(Object result) {
+            if (result != NO_RESULT && failure.get() == null) {
+                try {
+                    resultSink.accept((T) result);
+                } catch (RuntimeException ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            }
+        }
+
+        private void acquire(int count) {
+            try {
+                permits.acquire(count);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException(ex.getMessage()));
+            }
+        }
+
+        @Override
+        public void end() {
+            // Wait for all in-flight elements to be delivered
+            acquire(maxInFlight);
+            permits.release(maxInFlight);
+            synchronized (this) {
+                if (failure.get() == null) {
+                    resultSink.end();
+                }
+            }
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface ElementDecoder<T> {
+        T decode() throws IOException;
     }
 
 }
@@ -18,6 +18,7 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -28,6 +29,7 @@
 import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
 import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.util.Args;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.ok2c.hc5.json.JsonAsyncTokenizer;
@@ -37,13 +39,23 @@
 abstract class AbstractJsonEntityConsumer<T> implements AsyncEntityConsumer<T> {
 
     private final JsonAsyncTokenizer jsonTokenizer;
+    private final int capacityWindow;
     private final AtomicReference<FutureCallback<T>> resultCallbackRef;
     private final AtomicReference<T> resultRef;
+    private final AtomicReference<CapacityChannel> capacityChannelRef;
+    private final AtomicInteger capacity;
 
-    AbstractJsonEntityConsumer(JsonFactory jsonFactory) {
+    AbstractJsonEntityConsumer(JsonFactory jsonFactory, int capacityWindow) {
         this.jsonTokenizer = new JsonAsyncTokenizer(jsonFactory);
+        this.capacityWindow = Args.positive(capacityWindow, "Capacity window");
         this.resultCallbackRef = new AtomicReference<>(null);
         this.resultRef = new AtomicReference<>(null);
+        this.capacityChannelRef = new AtomicReference<>(null);
+        this.capacity = new AtomicInteger(0);
+    }
+
+    AbstractJsonEntityConsumer(JsonFactory jsonFactory) {
+        this(jsonFactory, Integer.MAX_VALUE);
     }
 
     abstract JsonTokenConsumer createJsonTokenConsumer(Consumer<T> resultConsumer);
@@ -51,7 +63,7 @@
     @Override
     public final void streamStart(EntityDetails entityDetails, FutureCallback<T> resultCallback) throws HttpException, IOException {
         ContentType contentType = ContentType.parseLenient(entityDetails.getContentType());
-        if (contentType != null && !ContentType.APPLICATION_JSON.isSameMimeType(contentType)) {
+        if (contentType != null && !JsonContentTypes.isJson(contentType)) {
             throw new JsonMessageException("Unexpected content type: " + contentType);
         }
         resultCallbackRef.set(resultCallback);
@@ -64,14 +76,57 @@ public final void streamStart(EntityDetails entityDetails, FutureCallback<T> res
         }));
     }
 
+    /**
+     * Determines whether or not the recipient of results produced by this consumer is able
+     * to accept more. Input capacity is not granted to the underlying data stream while
+     * the recipient is not ready.
+     */
+    boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Grants input capacity to the underlying data stream up to the capacity window
+     * if the recipient of results is ready to accept more of them.
+     */
+    final void signalCapacity() throws IOException {
+        CapacityChannel capacityChannel = capacityChannelRef.get();
+        if (capacityChannel == null || !isReady()) {
+            return;
+        }
+        for (;;) {
+            int current = capacity.get();
+            if (current >= capacityWindow) {
+                return;
+            }
+            if (capacity.compareAndSet(current, capacityWindow)) {
+                capacityChannel.update(capacityWindow - current);
+                return;
+            }
+        }
+    }
+
     @Override
     public final void updateCapacity(CapacityChannel capacityChannel) throws IOException {
-        capacityChannel.update(Integer.MAX_VALUE);
+        if (capacityWindow == Integer.MAX_VALUE) {
+            capacityChannel.update(Integer.MAX_VALUE);
+        } else {
+            capacityChannelRef.set(capacityChannel);
+            signalCapacity();
+        }
     }
 
     @Override
     public final void consume(ByteBuffer data) throws IOException {
-        jsonTokenizer.consume(data);
+        if (capacityWindow == Integer.MAX_VALUE) {
+            jsonTokenizer.consume(data);
+        } else {
+            if (data != null) {
+                capacity.addAndGet(-data.remaining());
+            }
+            jsonTokenizer.consume(data);
+            signalCapacity();
+        }
     }
 
     @Override
@@ -94,6 +149,8 @@ public final T getContent() {
 
     @Override
     public void releaseResources() {
+        capacityChannelRef.set(null);
+        capacity.set(0);
     }
 
 }
@@ -15,24 +15,83 @@
  */
 package com.ok2c.hc5.json.http;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
+
+import com.ok2c.hc5.json.JsonMessageException;
 
 abstract class AbstractJsonEntityProducer implements AsyncEntityProducer {
 
     private enum State { ACTIVE, FLUSHING, END_STREAM }
 
     private final InternalBuffer buffer;
+    private final int bufferSize;
+    private final Executor executor;
+    private final boolean preSerialize;
 
     private volatile State state;
+    private volatile boolean generating;
+    private volatile int generation;
+    private volatile DataStreamChannel dataChannel;
+    private volatile Exception exception;
+    private volatile ByteBuffer content;
+    private volatile Exception contentException;
+    private volatile ByteBuffer contentCursor;
 
     AbstractJsonEntityProducer(int initSize) {
+        this(initSize, (ByteBufferPool) null);
+    }
+
+    /**
+     * Creates a producer that draws its buffer from the given pool and returns it
+     * to the pool on {@link #releaseResources()}.
+     */
+    AbstractJsonEntityProducer(int initSize, ByteBufferPool bufferPool) {
+        this.buffer = new InternalBuffer(initSize, bufferPool);
+        this.bufferSize = initSize;
+        this.executor = null;
+        this.preSerialize = false;
+        this.state = State.ACTIVE;
+    }
+
+    /**
+     * Creates a producer that, if {@code preSerialize} is {@code true}, renders
+     * the entire content once, reports its exact length and re-sends the same bytes
+     * every time the entity gets produced.
+     */
+    AbstractJsonEntityProducer(int initSize, boolean preSerialize) {
         this.buffer = new InternalBuffer(initSize);
+        this.bufferSize = initSize;
+        this.executor = null;
+        this.preSerialize = preSerialize;
+        this.state = State.ACTIVE;
+    }
+
+    /**
+     * Creates a producer that generates content incrementally on a thread supplied
+     * by the given executor. The generating thread blocks whenever {@code bufferSize}
+     * bytes are pending and resumes once the data channel has drained them.
+     */
+    AbstractJsonEntityProducer(int bufferSize, Executor executor) {
+        this(bufferSize, executor, null);
+    }
+
+    AbstractJsonEntityProducer(int bufferSize, Executor executor, ByteBufferPool bufferPool) {
+        Args.positive(bufferSize, "Buffer size");
+        this.buffer = new InternalBuffer(bufferSize, bufferPool);
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+        this.preSerialize = false;
         this.state = State.ACTIVE;
     }
 
@@ -40,9 +99,26 @@ private enum State { ACTIVE, FLUSHING, END_STREAM }
 
     @Override
     public final long getContentLength() {
+        if (preSerialize) {
+            ByteBuffer data = renderContent();
+            return data != null ? data.remaining() : -1;
+        }
         return -1;
     }
 
+    private synchronized ByteBuffer renderContent() {
+        if (content == null && contentException == null) {
+            try {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bufferSize);
+                generateJson(outputStream);
+                content = ByteBuffer.wrap(outputStream.toByteArray()).asReadOnlyBuffer();
+            } catch (final Exception ex) {
+                contentException = ex;
+            }
+        }
+        return content;
+    }
+
     @Override
     public final Set<String> getTrailerNames() {
         return null;
@@ -70,11 +146,29 @@ public boolean isChunked() {
 
     @Override
     public final int available() {
-        return buffer.length();
+        if (preSerialize) {
+            ByteBuffer cursor = contentCursor;
+            if (cursor != null) {
+                return cursor.remaining();
+            }
+            ByteBuffer data = content;
+            return data != null ? data.remaining() : 0;
+        }
+        synchronized (buffer) {
+            return buffer.length();
+        }
     }
 
     @Override
     public final void produce(final DataStreamChannel channel) throws IOException {
+        if (preSerialize) {
+            producePreSerialized(channel);
+            return;
+        }
+        if (executor != null) {
+            produceStreaming(channel);
+            return;
+        }
         if (state == State.ACTIVE) {
             generateJson(new OutputStream() {
 
@@ -104,10 +198,158 @@ public void close() throws IOException {
         }
     }
 
+    private void producePreSerialized(final DataStreamChannel channel) throws IOException {
+        if (state == State.ACTIVE) {
+            ByteBuffer data = renderContent();
+            if (data == null) {
+                throw failure(contentException);
+            }
+            contentCursor = data.duplicate();
+            state = State.FLUSHING;
+        }
+        if (state == State.FLUSHING) {
+            ByteBuffer cursor = contentCursor;
+            if (cursor.hasRemaining()) {
+                channel.write(cursor);
+            }
+            if (!cursor.hasRemaining()) {
+                channel.endStream(null);
+                state = State.END_STREAM;
+            }
+        }
+    }
+
+    private static IOException failure(Exception cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new JsonMessageException("JSON content generation failed", cause);
+    }
+
+    private void produceStreaming(final DataStreamChannel channel) throws IOException {
+        synchronized (buffer) {
+            dataChannel = channel;
+            if (exception != null) {
+                throw failure(exception);
+            }
+            if (state == State.ACTIVE && !generating) {
+                generating = true;
+                final StreamingOutputStream outputStream = new StreamingOutputStream(generation);
+                executor.execute(() -> {
+                    try {
+                        generateJson(outputStream);
+                    } catch (final Exception ex) {
+                        outputStream.fail(ex);
+                    }
+                });
+            }
+            if (state.compareTo(State.END_STREAM) < 0 && buffer.hasData()) {
+                channel.write(buffer.getByteBuffer());
+                buffer.notifyAll();
+            }
+            if (state == State.FLUSHING && !buffer.hasData()) {
+                channel.endStream(null);
+                state = State.END_STREAM;
+            }
+        }
+    }
+
     @Override
     public void releaseResources() {
-        buffer.clear();
-        state = State.ACTIVE;
+        synchronized (buffer) {
+            buffer.release();
+            state = State.ACTIVE;
+            generating = false;
+            generation++;
+            dataChannel = null;
+            exception = null;
+            contentCursor = null;
+            buffer.notifyAll();
+        }
+    }
+
+    private class StreamingOutputStream extends OutputStream {
+
+        private final int expectedGeneration;
+
+        StreamingOutputStream(int expectedGeneration) {
+            this.expectedGeneration = expectedGeneration;
+        }
+
+        private void ensureCurrent() throws IOException {
+            if (generation != expectedGeneration) {
+                throw new InterruptedIOException("JSON content generation cancelled");
+            }
+        }
+
+        private int awaitSpace() throws IOException {
+            int space = bufferSize - buffer.length();
+            while (space <= 0) {
+                ensureCurrent();
+                try {
+                    buffer.wait();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(ex.getMessage());
+                }
+                space = bufferSize - buffer.length();
+            }
+            ensureCurrent();
+            return space;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int remaining = len;
+            int offset = off;
+            while (remaining > 0) {
+                synchronized (buffer) {
+                    final int chunk = Math.min(awaitSpace(), remaining);
+                    buffer.write(b, offset, chunk);
+                    offset += chunk;
+                    remaining -= chunk;
+                }
+                requestOutput();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            synchronized (buffer) {
+                awaitSpace();
+                buffer.write(b);
+            }
+            requestOutput();
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (buffer) {
+                ensureCurrent();
+                if (state == State.ACTIVE) {
+                    state = State.FLUSHING;
+                }
+            }
+            requestOutput();
+        }
+
+        void fail(Exception cause) {
+            synchronized (buffer) {
+                if (generation != expectedGeneration) {
+                    return;
+                }
+                exception = cause;
+            }
+            requestOutput();
+        }
+
+        private void requestOutput() {
+            final DataStreamChannel channel = dataChannel;
+            if (channel != null) {
+                channel.requestOutput();
+            }
+        }
+
     }
 
 }
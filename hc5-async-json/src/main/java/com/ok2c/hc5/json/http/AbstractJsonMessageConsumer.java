@@ -54,7 +54,8 @@ final void consumeMessage(H messageHead, EntityDetails entityDetails, HttpContex
             }
         }
         else {
-            AsyncEntityConsumer<T> entityConsumer = createEntityConsumer(messageHead, entityDetails);
+            AsyncEntityConsumer<T> entityConsumer = DecompressingEntityConsumer.decorate(
+                    createEntityConsumer(messageHead, entityDetails), entityDetails);
             entityConsumer.streamStart(entityDetails, new FutureCallback<T>() {
 
                 @Override
@@ -0,0 +1,449 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.util.Args;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ok2c.hc5.json.FlowControlledResultSink;
+import com.ok2c.hc5.json.JsonMessageException;
+import com.ok2c.hc5.json.JsonResultSink;
+
+/**
+ * Base class for {@link AsyncEntityConsumer} implementations that split incoming
+ * content into records at a delimiter byte and de-serialize each record independently.
+ * <p>
+ * Records are located by scanning input buffers for the delimiter and get passed
+ * to {@link #processRecord(byte[], int, int, boolean)} directly from the input
+ * buffers where possible. Only records split across input buffers get copied.
+ * </p>
+ * <p>
+ * If constructed with a finite capacity window the consumer reads no more than
+ * the given number of bytes ahead of the result processing. If the result sink
+ * is a {@link FlowControlledResultSink}, input capacity is granted only while
+ * the sink is able to accept more results.
+ * </p>
+ * <p>
+ * If constructed with an {@link Executor} complete records are copied and
+ * de-serialized in parallel by the executor. Objects are passed to the result sink
+ * one at a time and in the order of their appearance in the message. Input capacity
+ * is not granted while the given maximum number of records are pending.
+ * </p>
+ *
+ * @param <T> type of objects produced by this class.
+ */
+abstract class AbstractJsonRecordEntityConsumer<T> implements AsyncEntityConsumer<Long> {
+
+    private static final Object NO_RESULT = new Object();
+
+    private final ObjectReader objectReader;
+    private final JsonResultSink<T> resultSink;
+    private final byte delimiter;
+    private final int capacityWindow;
+    private final Executor executor;
+    private final int maxPending;
+    private final AtomicReference<FutureCallback<Long>> resultCallbackRef;
+    private final AtomicReference<CapacityChannel> capacityChannelRef;
+    private final AtomicInteger capacity;
+    private final AtomicInteger pending;
+    private final AtomicLong resultCapacity;
+    private final Map<Long, Object> completed;
+
+    // Accessed by the I/O reactor only
+    private byte[] recordBuf;
+    private int recordLen;
+    private byte[] scratch;
+    private boolean first;
+    private long nextSubmitted;
+
+    // Guarded by #completed
+    private long nextDelivered;
+    private long count;
+    private boolean endOfStream;
+    private volatile boolean done;
+
+    private volatile Long result;
+
+    AbstractJsonRecordEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                     Executor executor, int maxPending, JsonResultSink<T> resultSink,
+                                     byte delimiter) {
+        // Each record must hold exactly one value
+        this.objectReader = Objects.requireNonNull(objectMapper, "Object mapper").readerFor(javaType)
+                .with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        this.resultSink = Objects.requireNonNull(resultSink, "Result sink");
+        this.delimiter = delimiter;
+        this.capacityWindow = Args.positive(capacityWindow, "Capacity window");
+        if (executor != null) {
+            Args.check(capacityWindow != Integer.MAX_VALUE, "Capacity window must be finite if executor is given");
+        }
+        this.executor = executor;
+        this.maxPending = Args.positive(maxPending, "Max pending");
+        this.resultCallbackRef = new AtomicReference<>();
+        this.capacityChannelRef = new AtomicReference<>();
+        this.capacity = new AtomicInteger(0);
+        this.pending = new AtomicInteger(0);
+        this.resultCapacity = new AtomicLong(resultSink instanceof FlowControlledResultSink ? 0 : Long.MAX_VALUE);
+        this.completed = new HashMap<>();
+    }
+
+    AbstractJsonRecordEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                     JsonResultSink<T> resultSink, byte delimiter) {
+        this(objectMapper, javaType, capacityWindow, null, Integer.MAX_VALUE, resultSink, delimiter);
+    }
+
+    AbstractJsonRecordEntityConsumer(ObjectMapper objectMapper, JavaType javaType, JsonResultSink<T> resultSink,
+                                     byte delimiter) {
+        this(objectMapper, javaType, Integer.MAX_VALUE, resultSink, delimiter);
+    }
+
+    /**
+     * Processes a single record.
+     *
+     * @param buf the buffer containing the record.
+     * @param off the offset of the record, excluding the delimiter.
+     * @param len the length of the record, excluding the delimiter.
+     * @param first {@code true} if the record is the content preceding the first delimiter.
+     */
+    abstract void processRecord(byte[] buf, int off, int len, boolean first) throws IOException;
+
+    /**
+     * Determines whether content of the given type can be processed.
+     */
+    abstract boolean isSupported(ContentType contentType);
+
+    /**
+     * Handles a record that could not be de-serialized. Returns {@code true} if
+     * the record is to be skipped or {@code false} if the message is to be failed.
+     * May be called by executor threads.
+     */
+    boolean skipMalformed(JsonProcessingException ex) {
+        return false;
+    }
+
+    /**
+     * Resets state kept by subclasses at the start of a new entity stream.
+     */
+    void reset() {
+    }
+
+    @Override
+    public void streamStart(EntityDetails entityDetails, FutureCallback<Long> resultCallback) throws HttpException, IOException {
+        ContentType contentType = ContentType.parseLenient(entityDetails.getContentType());
+        if (contentType != null && !isSupported(contentType)) {
+            throw new JsonMessageException("Unexpected content type: " + contentType);
+        }
+        resultCallbackRef.set(resultCallback);
+        recordLen = 0;
+        first = true;
+        nextSubmitted = 0;
+        synchronized (completed) {
+            completed.clear();
+            nextDelivered = 0;
+            count = 0;
+            endOfStream = false;
+            done = false;
+        }
+        result = null;
+        reset();
+        if (resultSink instanceof FlowControlledResultSink) {
+            ((FlowControlledResultSink<T>) resultSink).updateCapacity(increment -> {
+                if (resultCapacity.addAndGet(increment) > 0) {
+                    signalCapacity();
+                }
+            });
+        }
+        resultSink.begin(-1);
+    }
+
+    private boolean isReady() {
+        // Once done, the rest of the message body gets discarded
+        return done || resultCapacity.get() > 0 && pending.get() < maxPending;
+    }
+
+    private void signalCapacity() throws IOException {
+        CapacityChannel capacityChannel = capacityChannelRef.get();
+        if (capacityChannel == null || !isReady()) {
+            return;
+        }
+        for (;;) {
+            int current = capacity.get();
+            if (current >= capacityWindow) {
+                return;
+            }
+            if (capacity.compareAndSet(current, capacityWindow)) {
+                capacityChannel.update(capacityWindow - current);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        if (capacityWindow == Integer.MAX_VALUE && executor == null
+                && !(resultSink instanceof FlowControlledResultSink)) {
+            capacityChannel.update(Integer.MAX_VALUE);
+        } else {
+            capacityChannelRef.set(capacityChannel);
+            signalCapacity();
+        }
+    }
+
+    @Override
+    public void consume(ByteBuffer data) throws IOException {
+        if (data == null || !data.hasRemaining()) {
+            return;
+        }
+        byte[] buf;
+        int off;
+        int len = data.remaining();
+        capacity.addAndGet(-len);
+        if (data.hasArray()) {
+            buf = data.array();
+            off = data.arrayOffset() + data.position();
+        } else {
+            if (scratch == null || scratch.length < len) {
+                scratch = new byte[len];
+            }
+            data.get(scratch, 0, len);
+            buf = scratch;
+            off = 0;
+        }
+        data.position(data.limit());
+        int end = off + len;
+        int start = off;
+        for (int i = off; i < end; i++) {
+            if (buf[i] == delimiter) {
+                if (recordLen > 0) {
+                    append(buf, start, i - start);
+                    processRecord(recordBuf, 0, recordLen, first);
+                    recordLen = 0;
+                } else {
+                    processRecord(buf, start, i - start, first);
+                }
+                first = false;
+                start = i + 1;
+            }
+        }
+        if (start < end) {
+            append(buf, start, end - start);
+        }
+        signalCapacity();
+    }
+
+    private void append(byte[] buf, int off, int len) {
+        if (recordBuf == null) {
+            recordBuf = new byte[Math.max(len, 1024)];
+        } else if (recordLen + len > recordBuf.length) {
+            recordBuf = Arrays.copyOf(recordBuf, Math.max(recordLen + len, recordBuf.length << 1));
+        }
+        System.arraycopy(buf, off, recordBuf, recordLen, len);
+        recordLen += len;
+    }
+
+    /**
+     * De-serializes the given record, ignoring leading and trailing whitespace,
+     * and passes the result to the result sink. Blank records are ignored.
+     */
+    final void decode(byte[] buf, int off, int len) throws IOException {
+        while (len > 0 && isWhitespace(buf[off])) {
+            off++;
+            len--;
+        }
+        while (len > 0 && isWhitespace(buf[off + len - 1])) {
+            len--;
+        }
+        if (len == 0 || done) {
+            return;
+        }
+        long sequence = nextSubmitted++;
+        if (executor == null) {
+            complete(sequence, readValue(buf, off, len));
+            return;
+        }
+        // Input buffers get reused once consumed
+        byte[] record = Arrays.copyOfRange(buf, off, off + len);
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                Object value;
+                try {
+                    value = readValue(record, 0, record.length);
+                } catch (Exception ex) {
+                    value = ex;
+                }
+                pending.decrementAndGet();
+                try {
+                    complete(sequence, value);
+                } catch (Exception ex) {
+                    failed(ex);
+                } finally {
+                    try {
+                        signalCapacity();
+                    } catch (IOException ex) {
+                        failed(ex);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pending.decrementAndGet();
+            synchronized (completed) {
+                done = true;
+                completed.clear();
+            }
+            throw new JsonMessageException("Record decoding rejected", ex);
+        }
+    }
+
+    private Object readValue(byte[] buf, int off, int len) throws IOException {
+        try {
+            T value = objectReader.readValue(buf, off, len);
+            return value != null ? value : NO_RESULT;
+        } catch (JsonProcessingException ex) {
+            if (skipMalformed(ex)) {
+                return NO_RESULT;
+            }
+            throw ex;
+        }
+    }
+
+    private void complete(long sequence, Object value) throws IOException {
+        synchronized (completed) {
+            if (done) {
+                return;
+            }
+            completed.put(sequence, value);
+            if (!deliverCompleted()) {
+                return;
+            }
+        }
+        endStream();
+    }
+
+    /**
+     * Delivers completed records in order of their appearance. Returns {@code true}
+     * once all records have been delivered after the end of stream.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean deliverCompleted() throws IOException {
+        Object next;
+        while ((next = completed.remove(nextDelivered)) != null) {
+            nextDelivered++;
+            if (next instanceof Exception) {
+                done = true;
+                completed.clear();
+                if (next instanceof IOException) {
+                    throw (IOException) next;
+                }
+                throw new JsonMessageException("Record decoding failed", (Exception) next);
+            }
+            if (next != NO_RESULT) {
+                count++;
+                resultCapacity.decrementAndGet();
+                try {
+                    resultSink.accept((T) next);
+                } catch (RuntimeException ex) {
+                    // No more records get delivered to a failed sink
+                    done = true;
+                    completed.clear();
+                    throw ex;
+                }
+            }
+        }
+        if (endOfStream && nextDelivered == nextSubmitted) {
+            done = true;
+            result = count;
+            return true;
+        }
+        return false;
+    }
+
+    private void endStream() {
+        resultSink.end();
+        FutureCallback<Long> resultCallback = resultCallbackRef.getAndSet(null);
+        if (resultCallback != null) {
+            resultCallback.completed(result);
+        }
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+        if (recordLen > 0) {
+            processRecord(recordBuf, 0, recordLen, first);
+            recordLen = 0;
+        }
+        synchronized (completed) {
+            if (done) {
+                return;
+            }
+            endOfStream = true;
+            if (!deliverCompleted()) {
+                return;
+            }
+        }
+        endStream();
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        FutureCallback<Long> resultCallback = resultCallbackRef.getAndSet(null);
+        if (resultCallback != null) {
+            resultCallback.failed(cause);
+        }
+    }
+
+    @Override
+    public Long getContent() {
+        return result;
+    }
+
+    @Override
+    public void releaseResources() {
+        capacityChannelRef.set(null);
+        capacity.set(0);
+        recordBuf = null;
+        recordLen = 0;
+        scratch = null;
+    }
+
+}
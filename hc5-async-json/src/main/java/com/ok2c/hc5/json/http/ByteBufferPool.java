@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pool of {@link ByteBuffer}s used by JSON entity producers to buffer generated content.
+ * Implementations are expected to be thread-safe.
+ */
+public interface ByteBufferPool {
+
+    /**
+     * Acquires a buffer with at least the given capacity. The returned buffer
+     * is cleared and ready for writing.
+     *
+     * @param capacity the minimal capacity.
+     * @return the buffer.
+     */
+    ByteBuffer acquire(int capacity);
+
+    /**
+     * Returns the buffer previously obtained with {@link #acquire(int)} back to the pool.
+     * The buffer must not be used by the caller once released.
+     *
+     * @param buffer the buffer.
+     */
+    void release(ByteBuffer buffer);
+
+}
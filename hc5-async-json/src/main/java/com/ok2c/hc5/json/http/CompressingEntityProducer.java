@@ -0,0 +1,333 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link AsyncEntityProducer} decorator that compresses content generated by
+ * another entity producer using the given {@link ContentCoding}.
+ * <p>
+ * Content gets compressed chunk by chunk as the underlying producer writes it
+ * to the data channel. No more than about {@code bufferSize} bytes of compressed
+ * content are kept pending transmission; the underlying producer sees a data channel
+ * that accepts no more input until pending content has been written out.
+ * </p>
+ * <p>
+ * If {@code syncFlush} is enabled compressed content is flushed at the end of every
+ * {@link #produce(DataStreamChannel)} cycle that generated content so that objects
+ * written by long-lived sequence producers are not held back by the compressor.
+ * Otherwise the compressor decides when to emit content, which yields better
+ * compression ratios for content that is fully available upfront.
+ * </p>
+ */
+public class CompressingEntityProducer implements AsyncEntityProducer {
+
+    private static final byte[] GZIP_HEADER = new byte[] {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private final AsyncEntityProducer entityProducer;
+    private final ContentCoding contentCoding;
+    private final int level;
+    private final int bufferSize;
+    private final boolean syncFlush;
+    private final CRC32 crc;
+    private final byte[] inBuf;
+    private final DataStreamChannel compressingChannel;
+
+    private volatile DataStreamChannel dataChannel;
+
+    // Accessed by the I/O reactor only
+    private Deflater deflater;
+    private byte[] outBuf;
+    private int outStart;
+    private int outEnd;
+    private boolean started;
+    private boolean pendingFlush;
+    private boolean finished;
+    private boolean ended;
+    private List<? extends Header> trailers;
+
+    /**
+     * Creates a producer that compresses content of the given entity producer.
+     *
+     * @param entityProducer the entity producer generating uncompressed content.
+     * @param contentCoding the content coding.
+     * @param level the compression level (0-9) or {@link Deflater#DEFAULT_COMPRESSION}.
+     * @param bufferSize the amount of compressed content that may be pending transmission.
+     * @param syncFlush flush compressed content at the end of every produce cycle.
+     */
+    public CompressingEntityProducer(AsyncEntityProducer entityProducer,
+                                     ContentCoding contentCoding,
+                                     int level,
+                                     int bufferSize,
+                                     boolean syncFlush) {
+        Args.check(level == Deflater.DEFAULT_COMPRESSION || level >= 0 && level <= 9, "Invalid compression level");
+        this.entityProducer = Objects.requireNonNull(entityProducer, "Entity producer");
+        this.contentCoding = Objects.requireNonNull(contentCoding, "Content coding");
+        this.level = level;
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
+        this.syncFlush = syncFlush;
+        this.crc = new CRC32();
+        this.inBuf = new byte[Math.min(bufferSize, 8192)];
+        this.outBuf = new byte[1024];
+        this.compressingChannel = new DataStreamChannel() {
+
+            @Override
+            public void requestOutput() {
+                DataStreamChannel channel = dataChannel;
+                if (channel != null) {
+                    channel.requestOutput();
+                }
+            }
+
+            @Override
+            public int write(ByteBuffer src) {
+                return compress(src);
+            }
+
+            @Override
+            public void endStream() {
+                endStream(null);
+            }
+
+            @Override
+            public void endStream(List<? extends Header> trailers) {
+                finish(trailers);
+            }
+
+        };
+    }
+
+    public CompressingEntityProducer(AsyncEntityProducer entityProducer,
+                                     ContentCoding contentCoding,
+                                     int level,
+                                     int bufferSize) {
+        this(entityProducer, contentCoding, level, bufferSize, false);
+    }
+
+    public CompressingEntityProducer(AsyncEntityProducer entityProducer,
+                                     ContentCoding contentCoding,
+                                     int level,
+                                     boolean syncFlush) {
+        this(entityProducer, contentCoding, level, 8192, syncFlush);
+    }
+
+    public CompressingEntityProducer(AsyncEntityProducer entityProducer, ContentCoding contentCoding, int level) {
+        this(entityProducer, contentCoding, level, false);
+    }
+
+    public CompressingEntityProducer(AsyncEntityProducer entityProducer, ContentCoding contentCoding) {
+        this(entityProducer, contentCoding, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    private void start() {
+        if (!started) {
+            started = true;
+            if (deflater == null) {
+                deflater = new Deflater(level, contentCoding == ContentCoding.GZIP);
+            }
+            if (contentCoding == ContentCoding.GZIP) {
+                ensureSpace(GZIP_HEADER.length);
+                System.arraycopy(GZIP_HEADER, 0, outBuf, outEnd, GZIP_HEADER.length);
+                outEnd += GZIP_HEADER.length;
+            }
+        }
+    }
+
+    private int compress(ByteBuffer src) {
+        if (finished || outEnd - outStart >= bufferSize) {
+            return 0;
+        }
+        start();
+        int len = Math.min(src.remaining(), inBuf.length);
+        if (len == 0) {
+            return 0;
+        }
+        src.get(inBuf, 0, len);
+        if (contentCoding == ContentCoding.GZIP) {
+            crc.update(inBuf, 0, len);
+        }
+        deflater.setInput(inBuf, 0, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        pendingFlush = true;
+        return len;
+    }
+
+    private void finish(List<? extends Header> trailers) {
+        if (finished) {
+            return;
+        }
+        start();
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        if (contentCoding == ContentCoding.GZIP) {
+            ensureSpace(8);
+            writeInt((int) crc.getValue());
+            writeInt((int) deflater.getBytesRead());
+        }
+        this.trailers = trailers;
+        finished = true;
+        pendingFlush = false;
+    }
+
+    private void flushCompressed() {
+        int n;
+        do {
+            n = deflate(Deflater.SYNC_FLUSH);
+        } while (n > 0 && outEnd == outBuf.length);
+        pendingFlush = false;
+    }
+
+    private int deflate(int flush) {
+        ensureSpace(512);
+        int n = deflater.deflate(outBuf, outEnd, outBuf.length - outEnd, flush);
+        outEnd += n;
+        return n;
+    }
+
+    private void writeInt(int i) {
+        outBuf[outEnd++] = (byte) i;
+        outBuf[outEnd++] = (byte) (i >> 8);
+        outBuf[outEnd++] = (byte) (i >> 16);
+        outBuf[outEnd++] = (byte) (i >> 24);
+    }
+
+    private void ensureSpace(int space) {
+        if (outStart == outEnd) {
+            outStart = 0;
+            outEnd = 0;
+        }
+        if (outBuf.length - outEnd >= space) {
+            return;
+        }
+        if (outStart > 0) {
+            System.arraycopy(outBuf, outStart, outBuf, 0, outEnd - outStart);
+            outEnd -= outStart;
+            outStart = 0;
+        }
+        if (outBuf.length - outEnd < space) {
+            outBuf = Arrays.copyOf(outBuf, Math.max(outEnd + space, outBuf.length << 1));
+        }
+    }
+
+    private boolean flush(DataStreamChannel channel) throws IOException {
+        if (outStart < outEnd) {
+            outStart += channel.write(ByteBuffer.wrap(outBuf, outStart, outEnd - outStart));
+        }
+        return outStart == outEnd;
+    }
+
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+        dataChannel = channel;
+        if (!flush(channel)) {
+            return;
+        }
+        if (!finished) {
+            entityProducer.produce(compressingChannel);
+            if (syncFlush && pendingFlush) {
+                flushCompressed();
+            }
+            if (!flush(channel)) {
+                return;
+            }
+        }
+        if (finished && !ended) {
+            ended = true;
+            channel.endStream(trailers);
+        }
+    }
+
+    @Override
+    public int available() {
+        int pending = outEnd - outStart;
+        if (pending > 0) {
+            return pending;
+        }
+        return finished ? 0 : entityProducer.available();
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public String getContentType() {
+        return entityProducer.getContentType();
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return contentCoding.getToken();
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return entityProducer.getTrailerNames();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return entityProducer.isRepeatable();
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        entityProducer.failed(cause);
+    }
+
+    @Override
+    public void releaseResources() {
+        entityProducer.releaseResources();
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+        crc.reset();
+        dataChannel = null;
+        outStart = 0;
+        outEnd = 0;
+        started = false;
+        pendingFlush = false;
+        finished = false;
+        ended = false;
+        trailers = null;
+    }
+
+}
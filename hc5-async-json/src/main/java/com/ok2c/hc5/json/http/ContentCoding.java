@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+/**
+ * Content codings supported for streaming compression of JSON message bodies.
+ */
+public enum ContentCoding {
+
+    /**
+     * GZIP file format (RFC 1952).
+     */
+    GZIP("gzip"),
+
+    /**
+     * ZLIB data format (RFC 1950).
+     */
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Returns the content coding token used in the {@code Content-Encoding} header.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the content coding matching the given token or {@code null} if
+     * the token is absent or represents the identity coding.
+     *
+     * @throws IllegalArgumentException if the content coding is not supported.
+     */
+    static ContentCoding parse(String token) {
+        if (token == null) {
+            return null;
+        }
+        String s = token.trim();
+        if (s.isEmpty() || s.equalsIgnoreCase("identity")) {
+            return null;
+        }
+        if (s.equalsIgnoreCase("x-gzip")) {
+            return GZIP;
+        }
+        for (ContentCoding contentCoding : values()) {
+            if (contentCoding.token.equalsIgnoreCase(s)) {
+                return contentCoding;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content encoding: " + token);
+    }
+
+}
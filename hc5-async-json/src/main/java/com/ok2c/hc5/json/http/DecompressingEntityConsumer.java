@@ -0,0 +1,495 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.util.Args;
+
+import com.ok2c.hc5.json.JsonMessageException;
+
+/**
+ * {@link AsyncEntityConsumer} decorator that decompresses incoming content
+ * encoded with one of the supported {@link ContentCoding}s before passing it
+ * to another entity consumer. Content without a content encoding gets passed
+ * through unchanged.
+ * <p>
+ * Content gets decompressed chunk by chunk as it arrives. Both the ZLIB format
+ * and raw DEFLATE data are accepted for the {@code deflate} coding. The GZIP
+ * trailer checksum and length are verified.
+ * </p>
+ * <p>
+ * Flow control is applied separately to compressed and decompressed content.
+ * No more than {@code capacityWindow} bytes of compressed content get requested
+ * from the peer at a time, while decompressed content is passed to the underlying
+ * consumer only as long as it has capacity. Compressed content that cannot be
+ * decompressed yet is held back until the underlying consumer updates its capacity.
+ * </p>
+ *
+ * @param <T> type of result produced by the underlying consumer.
+ */
+public class DecompressingEntityConsumer<T> implements AsyncEntityConsumer<T> {
+
+    private enum State { HEADER, BODY, TRAILER, DONE }
+
+    private final AsyncEntityConsumer<T> entityConsumer;
+    private final int capacityWindow;
+    private final CRC32 crc;
+    private final byte[] outBuf;
+    private final AtomicBoolean draining;
+    private final AtomicLong capacity;
+    private final AtomicInteger granted;
+    private final CapacityChannel decompressedChannel;
+
+    private volatile ContentCoding contentCoding;
+    private volatile CapacityChannel capacityChannel;
+    private volatile boolean unbounded;
+    private volatile boolean blocked;
+    private volatile boolean endOfStream;
+    private volatile boolean completed;
+
+    // Guarded by this
+    private byte[] pendingBuf;
+    private int pendingLen;
+    private List<? extends Header> trailers;
+
+    // Accessed by the draining thread only
+    private Inflater inflater;
+    private State state;
+    private byte[] headerBuf;
+    private int headerLen;
+    private byte[] inBuf;
+    private int inOff;
+    private int inLen;
+
+    /**
+     * Creates a consumer that decompresses content passed to the given entity consumer.
+     *
+     * @param entityConsumer the entity consumer of decompressed content.
+     * @param bufferSize the size of the buffer used to decompress content.
+     * @param capacityWindow the amount of compressed content that may be requested from the peer.
+     */
+    public DecompressingEntityConsumer(AsyncEntityConsumer<T> entityConsumer, int bufferSize, int capacityWindow) {
+        this.entityConsumer = Objects.requireNonNull(entityConsumer, "Entity consumer");
+        this.capacityWindow = Args.positive(capacityWindow, "Capacity window");
+        this.crc = new CRC32();
+        this.outBuf = new byte[Args.positive(bufferSize, "Buffer size")];
+        this.draining = new AtomicBoolean();
+        this.capacity = new AtomicLong();
+        this.granted = new AtomicInteger();
+        this.decompressedChannel = increment -> {
+            if (increment == Integer.MAX_VALUE) {
+                unbounded = true;
+            } else if (increment > 0) {
+                capacity.addAndGet(increment);
+            }
+            drain();
+        };
+    }
+
+    public DecompressingEntityConsumer(AsyncEntityConsumer<T> entityConsumer, int bufferSize) {
+        this(entityConsumer, bufferSize, 65536);
+    }
+
+    public DecompressingEntityConsumer(AsyncEntityConsumer<T> entityConsumer) {
+        this(entityConsumer, 8192);
+    }
+
+    /**
+     * Decorates the given consumer with a {@link DecompressingEntityConsumer}
+     * if the entity has a content encoding. Content discarded by
+     * {@link NoopJsonEntityConsumer} does not get decompressed.
+     */
+    static <T> AsyncEntityConsumer<T> decorate(AsyncEntityConsumer<T> entityConsumer, EntityDetails entityDetails) {
+        String contentEncoding = entityDetails.getContentEncoding();
+        if (contentEncoding == null || contentEncoding.isEmpty() || entityConsumer instanceof NoopJsonEntityConsumer) {
+            return entityConsumer;
+        }
+        return new DecompressingEntityConsumer<>(entityConsumer);
+    }
+
+    @Override
+    public void streamStart(EntityDetails entityDetails, FutureCallback<T> resultCallback) throws HttpException, IOException {
+        ContentCoding coding;
+        try {
+            coding = ContentCoding.parse(entityDetails.getContentEncoding());
+        } catch (IllegalArgumentException ex) {
+            throw new JsonMessageException(ex.getMessage());
+        }
+        if (coding != null) {
+            state = coding == ContentCoding.GZIP ? State.HEADER : State.BODY;
+            headerLen = 0;
+            crc.reset();
+            inflater = null;
+            inLen = 0;
+            // Initial allowance matching the initial input window of the data stream
+            capacity.set(capacityWindow);
+            granted.set(0);
+            unbounded = false;
+            blocked = false;
+            endOfStream = false;
+            completed = false;
+            synchronized (this) {
+                pendingLen = 0;
+                trailers = null;
+            }
+        }
+        contentCoding = coding;
+        entityConsumer.streamStart(entityDetails, resultCallback);
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        if (contentCoding == null) {
+            entityConsumer.updateCapacity(capacityChannel);
+            return;
+        }
+        this.capacityChannel = capacityChannel;
+        entityConsumer.updateCapacity(decompressedChannel);
+    }
+
+    @Override
+    public void consume(ByteBuffer data) throws IOException {
+        if (contentCoding == null) {
+            entityConsumer.consume(data);
+            return;
+        }
+        if (data == null || !data.hasRemaining()) {
+            return;
+        }
+        int len = data.remaining();
+        granted.addAndGet(-len);
+        synchronized (this) {
+            if (pendingBuf == null || pendingBuf.length - pendingLen < len) {
+                pendingBuf = Arrays.copyOf(pendingBuf != null ? pendingBuf : new byte[0],
+                        Math.max(pendingLen + len, Math.min(outBuf.length, capacityWindow)));
+            }
+            data.get(pendingBuf, pendingLen, len);
+            pendingLen += len;
+        }
+        drain();
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+        if (contentCoding == null) {
+            entityConsumer.streamEnd(trailers);
+            return;
+        }
+        synchronized (this) {
+            this.trailers = trailers;
+        }
+        endOfStream = true;
+        drain();
+    }
+
+    /**
+     * Decompresses pending content for as long as the underlying consumer has capacity.
+     * Only one thread at a time decompresses content; threads that find another
+     * thread draining leave the pending work to that thread.
+     */
+    private void drain() throws IOException {
+        while (draining.compareAndSet(false, true)) {
+            try {
+                if (!completed) {
+                    process();
+                }
+            } catch (IOException | HttpException | RuntimeException ex) {
+                completed = true;
+                synchronized (this) {
+                    pendingLen = 0;
+                }
+                if (ex instanceof IOException) {
+                    throw (IOException) ex;
+                }
+                if (ex instanceof HttpException) {
+                    throw new JsonMessageException(ex.getMessage(), ex);
+                }
+                throw (RuntimeException) ex;
+            } finally {
+                draining.set(false);
+            }
+            if (!hasWork()) {
+                break;
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        if (completed) {
+            return false;
+        }
+        if (blocked) {
+            return hasCapacity();
+        }
+        synchronized (this) {
+            return pendingLen > 0 || endOfStream;
+        }
+    }
+
+    private boolean hasCapacity() {
+        return unbounded || capacity.get() > 0;
+    }
+
+    private void process() throws IOException, HttpException {
+        for (;;) {
+            if (state == State.BODY) {
+                blocked = !hasCapacity();
+                if (blocked) {
+                    // Keep remaining input until the underlying consumer has capacity
+                    return;
+                }
+                if (inflater == null) {
+                    if (inLen == 0 && !nextInput()) {
+                        break;
+                    }
+                    // Accept raw DEFLATE data in addition to the ZLIB format
+                    inflater = new Inflater(contentCoding == ContentCoding.GZIP || !isZlibHeader(inBuf[inOff]));
+                }
+                if (inflater.needsInput() && inLen > 0) {
+                    inflater.setInput(inBuf, inOff, inLen);
+                }
+                inflate();
+                if (inflater.finished()) {
+                    headerLen = 0;
+                    state = contentCoding == ContentCoding.GZIP ? State.TRAILER : State.DONE;
+                } else if (hasCapacity() && (inLen > 0 || !nextInput())) {
+                    break;
+                }
+                continue;
+            }
+            if (inLen == 0 && !nextInput()) {
+                break;
+            }
+            switch (state) {
+                case HEADER: {
+                    append(inBuf, inOff, inLen);
+                    inLen = 0;
+                    int n = parseGzipHeader(headerBuf, headerLen);
+                    if (n >= 0) {
+                        state = State.BODY;
+                        // Body content received along with the header
+                        inBuf = Arrays.copyOfRange(headerBuf, n, headerLen);
+                        inOff = 0;
+                        inLen = inBuf.length;
+                        headerLen = 0;
+                    }
+                    break;
+                }
+                case TRAILER: {
+                    int n = Math.min(inLen, 8 - headerLen);
+                    append(inBuf, inOff, n);
+                    inOff += n;
+                    inLen -= n;
+                    if (headerLen == 8) {
+                        verifyGzipTrailer();
+                        state = State.DONE;
+                    }
+                    break;
+                }
+                default:
+                    // Ignore content following the end of compressed data
+                    inLen = 0;
+            }
+        }
+        blocked = false;
+        List<? extends Header> endTrailers = null;
+        boolean end;
+        synchronized (this) {
+            end = endOfStream && pendingLen == 0;
+            if (end) {
+                endTrailers = trailers;
+            }
+        }
+        if (end) {
+            completed = true;
+            if (state != State.DONE) {
+                throw new JsonMessageException("Truncated compressed content");
+            }
+            entityConsumer.streamEnd(endTrailers);
+        } else {
+            signalCapacity();
+        }
+    }
+
+    /**
+     * Takes the next chunk of pending compressed content as input.
+     */
+    private boolean nextInput() {
+        synchronized (this) {
+            if (pendingLen == 0) {
+                return false;
+            }
+            if (inBuf == null || inBuf.length < pendingLen) {
+                inBuf = new byte[Math.max(pendingLen, outBuf.length)];
+            }
+            System.arraycopy(pendingBuf, 0, inBuf, 0, pendingLen);
+            inOff = 0;
+            inLen = pendingLen;
+            pendingLen = 0;
+            return true;
+        }
+    }
+
+    private void inflate() throws IOException {
+        int end = inOff + inLen;
+        try {
+            while (hasCapacity()) {
+                int len = unbounded ? outBuf.length : (int) Math.min(outBuf.length, capacity.get());
+                int n = inflater.inflate(outBuf, 0, len);
+                if (n == 0) {
+                    if (inflater.needsDictionary()) {
+                        throw new JsonMessageException("Compressed content requires a preset dictionary");
+                    }
+                    break;
+                }
+                if (contentCoding == ContentCoding.GZIP) {
+                    crc.update(outBuf, 0, n);
+                }
+                if (!unbounded) {
+                    capacity.addAndGet(-n);
+                }
+                entityConsumer.consume(ByteBuffer.wrap(outBuf, 0, n));
+            }
+        } catch (DataFormatException ex) {
+            throw new JsonMessageException("Malformed compressed content", ex);
+        } finally {
+            inLen = inflater.getRemaining();
+            inOff = end - inLen;
+        }
+    }
+
+    /**
+     * Requests more compressed content up to the capacity window.
+     */
+    private void signalCapacity() throws IOException {
+        CapacityChannel channel = capacityChannel;
+        if (channel == null) {
+            return;
+        }
+        for (;;) {
+            int current = granted.get();
+            if (current >= capacityWindow) {
+                return;
+            }
+            if (granted.compareAndSet(current, capacityWindow)) {
+                channel.update(capacityWindow - current);
+                return;
+            }
+        }
+    }
+
+    private static boolean isZlibHeader(byte b) {
+        return (b & 0x0f) == 8;
+    }
+
+    private void append(byte[] buf, int off, int len) {
+        if (headerBuf == null) {
+            headerBuf = new byte[Math.max(len, 64)];
+        } else if (headerLen + len > headerBuf.length) {
+            headerBuf = Arrays.copyOf(headerBuf, Math.max(headerLen + len, headerBuf.length << 1));
+        }
+        System.arraycopy(buf, off, headerBuf, headerLen, len);
+        headerLen += len;
+    }
+
+    /**
+     * Returns the length of the GZIP header or -1 if the header is incomplete.
+     */
+    private static int parseGzipHeader(byte[] b, int len) throws JsonMessageException {
+        if (len < 10) {
+            return -1;
+        }
+        if (b[0] != 0x1f || b[1] != (byte) 0x8b || b[2] != 8) {
+            throw new JsonMessageException("Malformed GZIP header");
+        }
+        int flags = b[3] & 0xff;
+        int n = 10;
+        if ((flags & 0x04) != 0) {
+            if (len < n + 2) {
+                return -1;
+            }
+            n += 2 + ((b[n] & 0xff) | (b[n + 1] & 0xff) << 8);
+        }
+        for (int flag : new int[] { 0x08, 0x10 }) {
+            if ((flags & flag) != 0) {
+                while (n < len && b[n] != 0) {
+                    n++;
+                }
+                n++;
+            }
+        }
+        if ((flags & 0x02) != 0) {
+            n += 2;
+        }
+        return n <= len ? n : -1;
+    }
+
+    private void verifyGzipTrailer() throws JsonMessageException {
+        long checksum = (headerBuf[0] & 0xffL) | (headerBuf[1] & 0xffL) << 8
+                | (headerBuf[2] & 0xffL) << 16 | (headerBuf[3] & 0xffL) << 24;
+        long size = (headerBuf[4] & 0xffL) | (headerBuf[5] & 0xffL) << 8
+                | (headerBuf[6] & 0xffL) << 16 | (headerBuf[7] & 0xffL) << 24;
+        if (checksum != crc.getValue() || size != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new JsonMessageException("GZIP content checksum mismatch");
+        }
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        entityConsumer.failed(cause);
+    }
+
+    @Override
+    public T getContent() {
+        return entityConsumer.getContent();
+    }
+
+    @Override
+    public void releaseResources() {
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+        headerBuf = null;
+        headerLen = 0;
+        inBuf = null;
+        inLen = 0;
+        synchronized (this) {
+            pendingBuf = null;
+            pendingLen = 0;
+            trailers = null;
+        }
+        entityConsumer.releaseResources();
+    }
+
+}
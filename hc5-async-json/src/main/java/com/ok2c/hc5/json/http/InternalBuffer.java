@@ -18,12 +18,65 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
-import org.apache.hc.core5.http.impl.nio.ExpandableBuffer;
+class InternalBuffer {
 
-class InternalBuffer extends ExpandableBuffer {
+    private final int initSize;
+    private final ByteBufferPool bufferPool;
+
+    private ByteBuffer buffer;
+    private boolean outputMode;
+
+    public InternalBuffer(int bufferSize, ByteBufferPool bufferPool) {
+        this.initSize = bufferSize;
+        this.bufferPool = bufferPool;
+    }
 
     public InternalBuffer(int bufferSize) {
-        super(bufferSize);
+        this(bufferSize, null);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return bufferPool != null ? bufferPool.acquire(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            buffer = allocate(initSize);
+            outputMode = false;
+        }
+        return buffer;
+    }
+
+    private void setInputMode() {
+        ByteBuffer current = buffer();
+        if (outputMode) {
+            if (current.hasRemaining()) {
+                current.compact();
+            } else {
+                current.clear();
+            }
+            outputMode = false;
+        }
+    }
+
+    private void setOutputMode() {
+        ByteBuffer current = buffer();
+        if (!outputMode) {
+            current.flip();
+            outputMode = true;
+        }
+    }
+
+    private void ensureCapacity(int requiredCapacity) {
+        if (requiredCapacity > buffer.capacity()) {
+            ByteBuffer expanded = allocate(Math.max(requiredCapacity, buffer.capacity() << 1));
+            buffer.flip();
+            expanded.put(buffer);
+            if (bufferPool != null) {
+                bufferPool.release(buffer);
+            }
+            buffer = expanded;
+        }
     }
 
     void write(byte[] b, int off, int len) throws IOException {
@@ -31,36 +84,63 @@ void write(byte[] b, int off, int len) throws IOException {
             return;
         }
         setInputMode();
-        int requiredCapacity = buffer().position() + len;
+        int requiredCapacity = buffer.position() + len;
+        ensureCapacity(requiredCapacity);
+        buffer.put(b, off, len);
+    }
+
+    void write(ByteBuffer src) {
+        if (src == null) {
+            return;
+        }
+        setInputMode();
+        int requiredCapacity = buffer.position() + src.remaining();
         ensureCapacity(requiredCapacity);
-        buffer().put(b, off, len);
+        buffer.put(src);
     }
 
     void write(int b) throws IOException {
         setInputMode();
-        int requiredCapacity = buffer().position() + 1;
+        int requiredCapacity = buffer.position() + 1;
         ensureCapacity(requiredCapacity);
-        buffer().put((byte) b);
+        buffer.put((byte) b);
     }
 
-    @Override
-    protected int length() {
-        return super.length();
+    int length() {
+        if (buffer == null) {
+            return 0;
+        }
+        return outputMode ? buffer.remaining() : buffer.position();
     }
 
-    @Override
-    protected boolean hasData() {
-        return super.hasData();
+    boolean hasData() {
+        return length() > 0;
     }
 
-    @Override
-    public void clear() {
-        super.clear();
+    void clear() {
+        if (buffer != null) {
+            buffer.clear();
+            outputMode = false;
+        }
+    }
+
+    /**
+     * Clears the buffer and returns its backing storage to the pool, if any.
+     */
+    void release() {
+        if (bufferPool != null && buffer != null) {
+            ByteBuffer released = buffer;
+            buffer = null;
+            outputMode = false;
+            bufferPool.release(released);
+        } else {
+            clear();
+        }
     }
 
     ByteBuffer getByteBuffer() {
         setOutputMode();
-        return buffer();
+        return buffer;
     }
 
 }
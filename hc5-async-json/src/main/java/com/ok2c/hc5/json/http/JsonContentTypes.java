@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.core5.http.ContentType;
+
+/**
+ * Content types of JSON message bodies.
+ */
+public final class JsonContentTypes {
+
+    /**
+     * Newline delimited JSON (NDJSON).
+     */
+    public static final ContentType APPLICATION_NDJSON = ContentType.create("application/x-ndjson", StandardCharsets.UTF_8);
+
+    /**
+     * JSON Lines.
+     */
+    public static final ContentType APPLICATION_JSONL = ContentType.create("application/jsonl", StandardCharsets.UTF_8);
+
+    /**
+     * JSON text sequence (RFC 7464).
+     */
+    public static final ContentType APPLICATION_JSON_SEQ = ContentType.create("application/json-seq", StandardCharsets.UTF_8);
+
+    /**
+     * Determines whether the given content type represents line delimited JSON.
+     */
+    static boolean isLineDelimited(ContentType contentType) {
+        return APPLICATION_NDJSON.isSameMimeType(contentType) || APPLICATION_JSONL.isSameMimeType(contentType);
+    }
+
+    /**
+     * Determines whether the given content type represents a JSON text sequence.
+     */
+    static boolean isTextSequence(ContentType contentType) {
+        return APPLICATION_JSON_SEQ.isSameMimeType(contentType);
+    }
+
+    /**
+     * Determines whether the given content type represents a single JSON document
+     * or concatenated JSON documents ({@code application/json}).
+     */
+    static boolean isJson(ContentType contentType) {
+        return ContentType.APPLICATION_JSON.isSameMimeType(contentType);
+    }
+
+    private JsonContentTypes() {
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ok2c.hc5.json.JsonResultSink;
+
+/**
+ * {@link AsyncEntityConsumer} implementation that splits incoming newline delimited
+ * JSON content (NDJSON, JSON Lines) into lines and de-serializes each line into
+ * an instance of the given class, passing those objects to a {@link JsonResultSink}.
+ * <p>
+ * Lines are located by scanning for line feeds and de-serialized directly from
+ * the input buffers where possible. Only lines split across input buffers get
+ * copied. Empty lines are ignored.
+ * </p>
+ * <p>
+ * If constructed with an {@link Executor} such as a {@link java.util.concurrent.ForkJoinPool}
+ * lines get de-serialized in parallel by the executor, so that de-serialization
+ * of a single message is not limited to the I/O dispatch thread. Objects are
+ * still passed to the result sink one at a time and in the order of their
+ * appearance in the message. No more than the given capacity window is read
+ * ahead and input capacity is not granted while the given maximum number
+ * of lines are pending de-serialization.
+ * </p>
+ *
+ * @param <T> type of objects produced by this class.
+ */
+public class JsonLinesEntityConsumer<T> extends AbstractJsonRecordEntityConsumer<T> {
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                   Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        super(objectMapper, javaType, capacityWindow, Objects.requireNonNull(executor, "Executor"), maxPending,
+                resultSink, (byte) '\n');
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, int capacityWindow,
+                                   Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                capacityWindow,
+                executor,
+                maxPending,
+                resultSink);
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, int capacityWindow,
+                                   Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference),
+                capacityWindow,
+                executor,
+                maxPending,
+                resultSink);
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                   JsonResultSink<T> resultSink) {
+        super(objectMapper, javaType, capacityWindow, resultSink, (byte) '\n');
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, int capacityWindow,
+                                   JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                capacityWindow,
+                resultSink);
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, int capacityWindow,
+                                   JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference),
+                capacityWindow,
+                resultSink);
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, JavaType javaType, JsonResultSink<T> resultSink) {
+        super(objectMapper, javaType, resultSink, (byte) '\n');
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                resultSink);
+    }
+
+    public JsonLinesEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference),
+                resultSink);
+    }
+
+    @Override
+    boolean isSupported(ContentType contentType) {
+        return JsonContentTypes.isLineDelimited(contentType) || JsonContentTypes.isJson(contentType);
+    }
+
+    @Override
+    void processRecord(byte[] buf, int off, int len, boolean first) throws IOException {
+        decode(buf, off, len);
+    }
+
+}
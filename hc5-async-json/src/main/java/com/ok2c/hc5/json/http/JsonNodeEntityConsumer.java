@@ -19,6 +19,7 @@
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.ok2c.hc5.json.FieldNameCache;
 import com.ok2c.hc5.json.JsonNodeAssembler;
 import com.ok2c.hc5.json.JsonTokenConsumer;
 
@@ -28,13 +29,20 @@
  */
 public class JsonNodeEntityConsumer extends AbstractJsonEntityConsumer<JsonNode> {
 
-    public JsonNodeEntityConsumer(JsonFactory jsonFactory) {
+    private final FieldNameCache fieldNameCache;
+
+    public JsonNodeEntityConsumer(JsonFactory jsonFactory, FieldNameCache fieldNameCache) {
         super(jsonFactory);
+        this.fieldNameCache = fieldNameCache;
+    }
+
+    public JsonNodeEntityConsumer(JsonFactory jsonFactory) {
+        this(jsonFactory, null);
     }
 
     @Override
     protected JsonTokenConsumer createJsonTokenConsumer(Consumer<JsonNode> resultConsumer) {
-        return JsonNodeAssembler.createTokenConsumer(resultConsumer);
+        return JsonNodeAssembler.createTokenConsumer(resultConsumer, fieldNameCache);
     }
 
 }
@@ -17,6 +17,8 @@
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 import com.fasterxml.jackson.core.JsonParser;
@@ -29,16 +31,36 @@
 /**
  * {@link org.apache.hc.core5.http.nio.AsyncEntityConsumer} implementation that
  * de-serializes incoming HTTP message entity into an instance of the given class.
+ * <p>
+ * If constructed with an {@link Executor} the object gets de-serialized on a thread
+ * supplied by the executor instead of the I/O dispatch thread.
+ * </p>
  *
  * @param <T> type of objects produced by this class.
  */
 public class JsonObjectEntityConsumer<T> extends AbstractJsonEntityConsumer<T> {
 
     private final ReadJsonValue<T> readJsonValue;
+    private final Executor executor;
 
-    public JsonObjectEntityConsumer(ObjectMapper objectMapper, JavaType javaType) {
+    public JsonObjectEntityConsumer(ObjectMapper objectMapper, JavaType javaType, Executor executor) {
         super(Objects.requireNonNull(objectMapper, "Object mapper").getFactory());
         this.readJsonValue = jsonParser -> objectMapper.readValue(jsonParser, javaType);
+        this.executor = executor;
+    }
+
+    public JsonObjectEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, Executor executor) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"), objectMapper.getTypeFactory().constructType(objectClazz),
+                Objects.requireNonNull(executor, "Executor"));
+    }
+
+    public JsonObjectEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, Executor executor) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"), objectMapper.getTypeFactory().constructType(typeReference),
+                Objects.requireNonNull(executor, "Executor"));
+    }
+
+    public JsonObjectEntityConsumer(ObjectMapper objectMapper, JavaType javaType) {
+        this(objectMapper, javaType, null);
     }
 
     public JsonObjectEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz) {
@@ -52,12 +74,23 @@ public JsonObjectEntityConsumer(ObjectMapper objectMapper, TypeReference<T> type
     @Override
     protected JsonTokenConsumer createJsonTokenConsumer(Consumer<T> resultConsumer) {
         return new TokenBufferAssembler(tokenBuffer -> {
-            try {
-                JsonParser jsonParser = tokenBuffer != null ? tokenBuffer.asParserOnFirstToken() : null;
-                T result = jsonParser != null ? readJsonValue.readValue(jsonParser) : null;
-                resultConsumer.accept(result);
-            } catch (IOException ex) {
-                failed(ex);
+            Runnable task = () -> {
+                try {
+                    JsonParser jsonParser = tokenBuffer != null ? tokenBuffer.asParserOnFirstToken() : null;
+                    T result = jsonParser != null ? readJsonValue.readValue(jsonParser) : null;
+                    resultConsumer.accept(result);
+                } catch (IOException | RuntimeException ex) {
+                    failed(ex);
+                }
+            };
+            if (executor != null) {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException ex) {
+                    failed(ex);
+                }
+            } else {
+                task.run();
             }
         });
     }
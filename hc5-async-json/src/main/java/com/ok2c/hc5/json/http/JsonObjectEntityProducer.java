@@ -17,6 +17,8 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -37,6 +39,66 @@ public JsonObjectEntityProducer(T jsonObject, ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Creates a producer that, if {@code preSerialize} is {@code true}, serializes
+     * the JSON object only once, reports the exact content length and re-sends the same
+     * content every time the entity gets produced.
+     *
+     * @param jsonObject the JSON object to be serialized.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param preSerialize pre-serialize flag.
+     */
+    public JsonObjectEntityProducer(T jsonObject, ObjectMapper objectMapper, boolean preSerialize) {
+        super(4096, preSerialize);
+        this.jsonObject = jsonObject;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates a producer that draws its content buffer from the given pool.
+     *
+     * @param jsonObject the JSON object to be serialized.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferPool the buffer pool.
+     */
+    public JsonObjectEntityProducer(T jsonObject, ObjectMapper objectMapper, ByteBufferPool bufferPool) {
+        super(4096, Objects.requireNonNull(bufferPool, "Buffer pool"));
+        this.jsonObject = jsonObject;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates a producer that serializes the JSON object incrementally on a thread
+     * supplied by the given executor, keeping at most {@code bufferSize} bytes
+     * of generated content in memory.
+     *
+     * @param jsonObject the JSON object to be serialized.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferSize the maximum amount of generated content to buffer.
+     * @param executor the executor to run content generation.
+     */
+    public JsonObjectEntityProducer(T jsonObject, ObjectMapper objectMapper, int bufferSize, Executor executor) {
+        super(bufferSize, Objects.requireNonNull(executor, "Executor"));
+        this.jsonObject = jsonObject;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates a producer that serializes the JSON object incrementally on a thread
+     * supplied by the given executor using a content buffer drawn from the given pool.
+     *
+     * @param jsonObject the JSON object to be serialized.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferSize the maximum amount of generated content to buffer.
+     * @param executor the executor to run content generation.
+     * @param bufferPool the buffer pool.
+     */
+    public JsonObjectEntityProducer(T jsonObject, ObjectMapper objectMapper, int bufferSize, Executor executor, ByteBufferPool bufferPool) {
+        super(bufferSize, Objects.requireNonNull(executor, "Executor"), Objects.requireNonNull(bufferPool, "Buffer pool"));
+        this.jsonObject = jsonObject;
+        this.objectMapper = objectMapper;
+    }
+
     @Override
     final void generateJson(OutputStream outputStream) throws IOException {
         objectMapper.writeValue(outputStream, jsonObject);
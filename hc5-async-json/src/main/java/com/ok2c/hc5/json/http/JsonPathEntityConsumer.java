@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ok2c.hc5.json.JsonPathTokenFilter;
+import com.ok2c.hc5.json.JsonResultSink;
+import com.ok2c.hc5.json.JsonTokenConsumer;
+
+/**
+ * {@link JsonSequenceEntityConsumer} that de-serializes only values matching
+ * the given JSON path expressions into instances of the given class and passes
+ * those objects to a {@link JsonResultSink}. The rest of the message entity is
+ * skipped without being buffered.
+ *
+ * @param <T> type of objects produced by this class.
+ * @see JsonPathTokenFilter
+ */
+public class JsonPathEntityConsumer<T> extends JsonSequenceEntityConsumer<T> {
+
+    private final List<String> paths;
+
+    public JsonPathEntityConsumer(ObjectMapper objectMapper, List<String> paths, JavaType javaType, int capacityWindow,
+                                  JsonResultSink<T> resultSink) {
+        super(objectMapper, javaType, capacityWindow, resultSink);
+        this.paths = Objects.requireNonNull(paths, "Paths");
+    }
+
+    public JsonPathEntityConsumer(ObjectMapper objectMapper, String path, JavaType javaType, int capacityWindow,
+                                  JsonResultSink<T> resultSink) {
+        this(objectMapper, Collections.singletonList(path), javaType, capacityWindow, resultSink);
+    }
+
+    public JsonPathEntityConsumer(ObjectMapper objectMapper, String path, Class<T> objectClazz, int capacityWindow,
+                                  JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                path,
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                capacityWindow,
+                resultSink);
+    }
+
+    public JsonPathEntityConsumer(ObjectMapper objectMapper, String path, TypeReference<T> typeReference, int capacityWindow,
+                                  JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                path,
+                objectMapper.getTypeFactory().constructType(typeReference),
+                capacityWindow,
+                resultSink);
+    }
+
+    public JsonPathEntityConsumer(ObjectMapper objectMapper, String path, JavaType javaType, JsonResultSink<T> resultSink) {
+        this(objectMapper, path, javaType, Integer.MAX_VALUE, resultSink);
+    }
+
+    public JsonPathEntityConsumer(ObjectMapper objectMapper, String path, Class<T> objectClazz, JsonResultSink<T> resultSink) {
+        this(objectMapper, path, objectClazz, Integer.MAX_VALUE, resultSink);
+    }
+
+    public JsonPathEntityConsumer(ObjectMapper objectMapper, String path, TypeReference<T> typeReference, JsonResultSink<T> resultSink) {
+        this(objectMapper, path, typeReference, Integer.MAX_VALUE, resultSink);
+    }
+
+    @Override
+    protected JsonTokenConsumer createJsonTokenConsumer(Consumer<Long> resultConsumer) {
+        return new JsonPathTokenFilter(paths, super.createJsonTokenConsumer(resultConsumer));
+    }
+
+}
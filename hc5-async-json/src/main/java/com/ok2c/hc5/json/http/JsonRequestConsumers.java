@@ -15,6 +15,10 @@
  */
 package com.ok2c.hc5.json.http;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.ToLongFunction;
+
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.Message;
 import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
@@ -24,7 +28,11 @@
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ok2c.hc5.json.BatchingResultSink;
+import com.ok2c.hc5.json.FieldNameCache;
+import com.ok2c.hc5.json.FlowControlledResultSink;
 import com.ok2c.hc5.json.JsonConsumer;
+import com.ok2c.hc5.json.JsonPathTokenFilter;
 import com.ok2c.hc5.json.JsonResultSink;
 import com.ok2c.hc5.json.JsonTokenEventHandler;
 
@@ -75,6 +83,69 @@ public static <T> AsyncRequestConsumer<Message<HttpRequest, T>> create(ObjectMap
         return new JsonRequestObjectConsumer<>(() -> new JsonObjectEntityConsumer<>(objectMapper, typeReference));
     }
 
+    /**
+     * Creates {@link AsyncRequestConsumer} that produces a {@link Message} object
+     * consisting of the {@link HttpRequest} head and the de-serialized JSON body.
+     * The body gets de-serialized incrementally as it arrives on a thread supplied
+     * by the given executor, holding no more than {@code bufferSize} bytes
+     * of content in memory.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param javaType the java type of the de-serialized object.
+     * @param bufferSize the maximum amount of content to buffer.
+     * @param executor the executor to run de-serialization.
+     * @param <T> the type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Message<HttpRequest, T>> create(ObjectMapper objectMapper,
+                                                                           JavaType javaType,
+                                                                           int bufferSize,
+                                                                           Executor executor) {
+        return new JsonRequestObjectConsumer<>(() -> new JsonStreamingObjectEntityConsumer<>(objectMapper, javaType, bufferSize, executor));
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that produces a {@link Message} object
+     * consisting of the {@link HttpRequest} head and the de-serialized JSON body.
+     * The body gets de-serialized incrementally as it arrives on a thread supplied
+     * by the given executor, holding no more than {@code bufferSize} bytes
+     * of content in memory.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param objectClazz the class of the de-serialized object.
+     * @param bufferSize the maximum amount of content to buffer.
+     * @param executor the executor to run de-serialization.
+     * @param <T> the type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Message<HttpRequest, T>> create(ObjectMapper objectMapper,
+                                                                           Class<T> objectClazz,
+                                                                           int bufferSize,
+                                                                           Executor executor) {
+        return new JsonRequestObjectConsumer<>(() -> new JsonStreamingObjectEntityConsumer<>(objectMapper, objectClazz, bufferSize, executor));
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that produces a {@link Message} object
+     * consisting of the {@link HttpRequest} head and the de-serialized JSON body.
+     * The body gets de-serialized incrementally as it arrives on a thread supplied
+     * by the given executor, holding no more than {@code bufferSize} bytes
+     * of content in memory.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param typeReference the type reference of the de-serialized object.
+     * @param bufferSize the maximum amount of content to buffer.
+     * @param executor the executor to run de-serialization.
+     * @param <T> the type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Message<HttpRequest, T>> create(ObjectMapper objectMapper,
+                                                                           TypeReference<T> typeReference,
+                                                                           int bufferSize,
+                                                                           Executor executor) {
+        return new JsonRequestObjectConsumer<>(() -> new JsonStreamingObjectEntityConsumer<>(objectMapper, typeReference, bufferSize, executor));
+    }
+
     /**
      * Creates {@link AsyncRequestConsumer} that produces a {@link Message} object
      * consisting of the {@link HttpRequest} head and the {@link JsonNode} body.
@@ -86,10 +157,27 @@ public static AsyncRequestConsumer<Message<HttpRequest, JsonNode>> create(JsonFa
         return new JsonRequestObjectConsumer<>(() -> new JsonNodeEntityConsumer(jsonFactory));
     }
 
+    /**
+     * Creates {@link AsyncRequestConsumer} that produces a {@link Message} object
+     * consisting of the {@link HttpRequest} head and the {@link JsonNode} body.
+     * Field names of the body are looked up with the given {@link FieldNameCache}
+     * so that repeated field names share the same instances.
+     *
+     * @param jsonFactory JSON factory.
+     * @param fieldNameCache the field name cache.
+     * @return the request consumer.
+     */
+    public static AsyncRequestConsumer<Message<HttpRequest, JsonNode>> create(JsonFactory jsonFactory, FieldNameCache fieldNameCache) {
+        return new JsonRequestObjectConsumer<>(() -> new JsonNodeEntityConsumer(jsonFactory, fieldNameCache));
+    }
+
     /**
      * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
      * into a sequence of instances of the given class and passes those objects
-     * to the given {@link JsonResultSink}.
+     * to the given {@link JsonResultSink}. Newline delimited JSON content
+     * ({@code application/x-ndjson}, {@code application/jsonl}) gets split into lines
+     * and de-serialized line by line. JSON text sequences ({@code application/json-seq})
+     * get split into records at record separators.
      *
      * @param objectMapper the object mapper to be used to de-serialize JSON content.
      * @param javaType the java type of the de-serialized object.
@@ -104,13 +192,127 @@ public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
                                                         JsonResultSink<T> resultSink) {
         return new JsonRequestStreamConsumer<>(
                 () -> new JsonSequenceEntityConsumer<>(objectMapper, javaType, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, javaType, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, javaType, resultSink),
                 messageConsumer);
     }
 
     /**
      * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
      * into a sequence of instances of the given class and passes those objects
-     * to the given {@link JsonResultSink}.
+     * to the given {@link JsonResultSink} while reading no more than the given
+     * number of bytes ahead of the result processing. If the sink is
+     * a {@link FlowControlledResultSink} input is read only while the sink is able
+     * to accept more results.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records that are de-serialized one by one.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param javaType the java type of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        JavaType javaType,
+                                                        int capacityWindow,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, javaType, capacityWindow, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, javaType, capacityWindow, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, javaType, capacityWindow, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * to the given {@link JsonResultSink} while reading no more than the given
+     * number of bytes ahead of the result processing. If the sink is
+     * a {@link FlowControlledResultSink} input is read only while the sink is able
+     * to accept more results. Objects get de-serialized and passed to the sink
+     * on threads supplied by the given executor, one at a time and in order.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records which are de-serialized in parallel. Input is not read
+     * while {@code maxPending} objects are pending de-serialization.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param javaType the java type of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param executor the executor to run de-serialization.
+     * @param maxPending the maximum number of objects pending de-serialization.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        JavaType javaType,
+                                                        int capacityWindow,
+                                                        Executor executor,
+                                                        int maxPending,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, javaType, capacityWindow, executor, maxPending, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, javaType, capacityWindow, executor, maxPending, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, javaType, capacityWindow, executor, maxPending, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * in batches to the given {@link JsonResultSink} while reading no more than
+     * the given number of bytes ahead of the result processing. A batch is passed
+     * to the sink once it reaches {@code maxBatchSize} objects or, if a weigher
+     * is given, {@code maxBatchBytes} bytes. The remaining objects are passed
+     * to the sink at the end of the message.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records that are de-serialized one by one.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param javaType the java type of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param maxBatchSize the maximum number of objects in a batch.
+     * @param maxBatchBytes the maximum estimated size of a batch in bytes.
+     * @param weigher optional function that estimates the size of a result object in bytes.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param batchSink the recipient of batches of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        JavaType javaType,
+                                                        int capacityWindow,
+                                                        int maxBatchSize,
+                                                        long maxBatchBytes,
+                                                        ToLongFunction<? super T> weigher,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<List<T>> batchSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, javaType, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, javaType, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, javaType, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * to the given {@link JsonResultSink}. Newline delimited JSON content
+     * ({@code application/x-ndjson}, {@code application/jsonl}) gets split into lines
+     * and de-serialized line by line. JSON text sequences ({@code application/json-seq})
+     * get split into records at record separators.
      *
      * @param objectMapper the object mapper to be used to de-serialize JSON content.
      * @param objectClazz the class of the de-serialized object.
@@ -125,13 +327,127 @@ public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
                                                         JsonResultSink<T> resultSink) {
         return new JsonRequestStreamConsumer<>(
                 () -> new JsonSequenceEntityConsumer<>(objectMapper, objectClazz, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, objectClazz, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, objectClazz, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * to the given {@link JsonResultSink} while reading no more than the given
+     * number of bytes ahead of the result processing. If the sink is
+     * a {@link FlowControlledResultSink} input is read only while the sink is able
+     * to accept more results.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records that are de-serialized one by one.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param objectClazz the class of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        Class<T> objectClazz,
+                                                        int capacityWindow,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, objectClazz, capacityWindow, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, objectClazz, capacityWindow, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, objectClazz, capacityWindow, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * to the given {@link JsonResultSink} while reading no more than the given
+     * number of bytes ahead of the result processing. If the sink is
+     * a {@link FlowControlledResultSink} input is read only while the sink is able
+     * to accept more results. Objects get de-serialized and passed to the sink
+     * on threads supplied by the given executor, one at a time and in order.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records which are de-serialized in parallel. Input is not read
+     * while {@code maxPending} objects are pending de-serialization.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param objectClazz the class of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param executor the executor to run de-serialization.
+     * @param maxPending the maximum number of objects pending de-serialization.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        Class<T> objectClazz,
+                                                        int capacityWindow,
+                                                        Executor executor,
+                                                        int maxPending,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, objectClazz, capacityWindow, executor, maxPending, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, objectClazz, capacityWindow, executor, maxPending, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, objectClazz, capacityWindow, executor, maxPending, resultSink),
                 messageConsumer);
     }
 
     /**
      * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
      * into a sequence of instances of the given class and passes those objects
-     * to the given {@link JsonResultSink}.
+     * in batches to the given {@link JsonResultSink} while reading no more than
+     * the given number of bytes ahead of the result processing. A batch is passed
+     * to the sink once it reaches {@code maxBatchSize} objects or, if a weigher
+     * is given, {@code maxBatchBytes} bytes. The remaining objects are passed
+     * to the sink at the end of the message.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records that are de-serialized one by one.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param objectClazz the class of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param maxBatchSize the maximum number of objects in a batch.
+     * @param maxBatchBytes the maximum estimated size of a batch in bytes.
+     * @param weigher optional function that estimates the size of a result object in bytes.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param batchSink the recipient of batches of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        Class<T> objectClazz,
+                                                        int capacityWindow,
+                                                        int maxBatchSize,
+                                                        long maxBatchBytes,
+                                                        ToLongFunction<? super T> weigher,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<List<T>> batchSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, objectClazz, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, objectClazz, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, objectClazz, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * to the given {@link JsonResultSink}. Newline delimited JSON content
+     * ({@code application/x-ndjson}, {@code application/jsonl}) gets split into lines
+     * and de-serialized line by line. JSON text sequences ({@code application/json-seq})
+     * get split into records at record separators.
      *
      * @param objectMapper the object mapper to be used to de-serialize JSON content.
      * @param typeReference the type reference of the de-serialized object.
@@ -146,6 +462,192 @@ public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
                                                         JsonResultSink<T> resultSink) {
         return new JsonRequestStreamConsumer<>(
                 () -> new JsonSequenceEntityConsumer<>(objectMapper, typeReference, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, typeReference, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, typeReference, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * to the given {@link JsonResultSink} while reading no more than the given
+     * number of bytes ahead of the result processing. If the sink is
+     * a {@link FlowControlledResultSink} input is read only while the sink is able
+     * to accept more results.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records that are de-serialized one by one.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param typeReference the type reference of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        TypeReference<T> typeReference,
+                                                        int capacityWindow,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, typeReference, capacityWindow, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, typeReference, capacityWindow, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, typeReference, capacityWindow, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * to the given {@link JsonResultSink} while reading no more than the given
+     * number of bytes ahead of the result processing. If the sink is
+     * a {@link FlowControlledResultSink} input is read only while the sink is able
+     * to accept more results. Objects get de-serialized and passed to the sink
+     * on threads supplied by the given executor, one at a time and in order.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records which are de-serialized in parallel. Input is not read
+     * while {@code maxPending} objects are pending de-serialization.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param typeReference the type reference of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param executor the executor to run de-serialization.
+     * @param maxPending the maximum number of objects pending de-serialization.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        TypeReference<T> typeReference,
+                                                        int capacityWindow,
+                                                        Executor executor,
+                                                        int maxPending,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, typeReference, capacityWindow, executor, maxPending, resultSink),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, typeReference, capacityWindow, executor, maxPending, resultSink),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, typeReference, capacityWindow, executor, maxPending, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that converts incoming HTTP message
+     * into a sequence of instances of the given class and passes those objects
+     * in batches to the given {@link JsonResultSink} while reading no more than
+     * the given number of bytes ahead of the result processing. A batch is passed
+     * to the sink once it reaches {@code maxBatchSize} objects or, if a weigher
+     * is given, {@code maxBatchBytes} bytes. The remaining objects are passed
+     * to the sink at the end of the message.
+     * Newline delimited JSON content ({@code application/x-ndjson},
+     * {@code application/jsonl}) and JSON text sequences ({@code application/json-seq})
+     * get split into records that are de-serialized one by one.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param typeReference the type reference of the de-serialized object.
+     * @param capacityWindow the maximum number of bytes to be read ahead of the result processing.
+     * @param maxBatchSize the maximum number of objects in a batch.
+     * @param maxBatchBytes the maximum estimated size of a batch in bytes.
+     * @param weigher optional function that estimates the size of a result object in bytes.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param batchSink the recipient of batches of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        TypeReference<T> typeReference,
+                                                        int capacityWindow,
+                                                        int maxBatchSize,
+                                                        long maxBatchBytes,
+                                                        ToLongFunction<? super T> weigher,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<List<T>> batchSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonSequenceEntityConsumer<>(objectMapper, typeReference, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                () -> new JsonLinesEntityConsumer<>(objectMapper, typeReference, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                () -> new JsonTextSequenceEntityConsumer<>(objectMapper, typeReference, capacityWindow,
+                        new BatchingResultSink<>(maxBatchSize, maxBatchBytes, weigher, batchSink)),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that de-serializes values of incoming HTTP message
+     * matching the given JSON path expression, such as {@code $.items[*].id},
+     * into instances of the given class and passes those objects to the given
+     * {@link JsonResultSink}. Non-matching content is skipped without being buffered.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param path the JSON path expression selecting the values to be de-serialized.
+     * @param javaType the java type of the de-serialized object.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     * @see JsonPathTokenFilter
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        String path,
+                                                        JavaType javaType,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonPathEntityConsumer<>(objectMapper, path, javaType, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that de-serializes values of incoming HTTP message
+     * matching the given JSON path expression, such as {@code $.items[*].id},
+     * into instances of the given class and passes those objects to the given
+     * {@link JsonResultSink}. Non-matching content is skipped without being buffered.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param path the JSON path expression selecting the values to be de-serialized.
+     * @param objectClazz the class of the de-serialized object.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     * @see JsonPathTokenFilter
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        String path,
+                                                        Class<T> objectClazz,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonPathEntityConsumer<>(objectMapper, path, objectClazz, resultSink),
+                messageConsumer);
+    }
+
+    /**
+     * Creates {@link AsyncRequestConsumer} that de-serializes values of incoming HTTP message
+     * matching the given JSON path expression, such as {@code $.items[*].id},
+     * into instances of the given class and passes those objects to the given
+     * {@link JsonResultSink}. Non-matching content is skipped without being buffered.
+     *
+     * @param objectMapper the object mapper to be used to de-serialize JSON content.
+     * @param path the JSON path expression selecting the values to be de-serialized.
+     * @param typeReference the type reference of the de-serialized object.
+     * @param messageConsumer optional operation that accepts the message head as input.
+     * @param resultSink the recipient of result objects.
+     * @param <T> type of result objects produced by the consumer.
+     * @return the request consumer.
+     * @see JsonPathTokenFilter
+     */
+    public static <T> AsyncRequestConsumer<Long> create(ObjectMapper objectMapper,
+                                                        String path,
+                                                        TypeReference<T> typeReference,
+                                                        JsonConsumer<HttpRequest> messageConsumer,
+                                                        JsonResultSink<T> resultSink) {
+        return new JsonRequestStreamConsumer<>(
+                () -> new JsonPathEntityConsumer<>(objectMapper, path, typeReference, resultSink),
                 messageConsumer);
     }
 
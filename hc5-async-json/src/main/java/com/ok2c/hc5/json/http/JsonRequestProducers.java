@@ -15,6 +15,8 @@
  */
 package com.ok2c.hc5.json.http;
 
+import java.util.concurrent.Executor;
+
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.nio.AsyncRequestProducer;
 
@@ -45,6 +47,46 @@ public static <T> AsyncRequestProducer create(HttpRequest request,
         return new JsonRequestObjectProducer(request, new JsonObjectEntityProducer<>(jsonObject, objectMapper));
     }
 
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a serialized JSON object as a message body. If {@code preSerialize}
+     * is {@code true} the object gets serialized only once, the message body
+     * is sent with an exact content length and the same content gets re-sent
+     * if the message is repeated.
+     *
+     * @param request the request message head.
+     * @param jsonObject the JSON object to be enclosed as a message body.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param preSerialize pre-serialize flag.
+     * @param <T> the type of objects used by the producer.
+     * @return the request producer.
+     */
+    public static <T> AsyncRequestProducer create(HttpRequest request,
+                                                  T jsonObject,
+                                                  ObjectMapper objectMapper,
+                                                  boolean preSerialize) {
+        return new JsonRequestObjectProducer(request, new JsonObjectEntityProducer<>(jsonObject, objectMapper, preSerialize));
+    }
+
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a serialized JSON object as a message body. The content gets
+     * buffered using buffers drawn from the given pool, which may allocate direct buffers.
+     *
+     * @param request the request message head.
+     * @param jsonObject the JSON object to be enclosed as a message body.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferPool the content buffer pool.
+     * @param <T> the type of objects used by the producer.
+     * @return the request producer.
+     */
+    public static <T> AsyncRequestProducer create(HttpRequest request,
+                                                  T jsonObject,
+                                                  ObjectMapper objectMapper,
+                                                  ByteBufferPool bufferPool) {
+        return new JsonRequestObjectProducer(request, new JsonObjectEntityProducer<>(jsonObject, objectMapper, bufferPool));
+    }
+
     /**
      * Creates {@link AsyncRequestProducer} that generates an HTTP request
      * enclosing a serialized JSON object as a message body.
@@ -60,6 +102,87 @@ public static AsyncRequestProducer create(HttpRequest request,
         return new JsonRequestObjectProducer(request, new JsonNodeEntityProducer(jsonObject, objectMapper));
     }
 
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a serialized JSON object as a message body. If {@code preSerialize}
+     * is {@code true} the object gets serialized only once, the message body
+     * is sent with an exact content length and the same content gets re-sent
+     * if the message is repeated.
+     *
+     * @param request the request message head.
+     * @param jsonObject the JSON object to be enclosed as a message body.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param preSerialize pre-serialize flag.
+     * @return the request producer.
+     */
+    public static AsyncRequestProducer create(HttpRequest request,
+                                              JsonNode jsonObject,
+                                              ObjectMapper objectMapper,
+                                              boolean preSerialize) {
+        return new JsonRequestObjectProducer(request, new JsonNodeEntityProducer(jsonObject, objectMapper, preSerialize));
+    }
+
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a serialized JSON object as a message body. The content gets
+     * buffered using buffers drawn from the given pool, which may allocate direct buffers.
+     *
+     * @param request the request message head.
+     * @param jsonObject the JSON object to be enclosed as a message body.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferPool the content buffer pool.
+     * @return the request producer.
+     */
+    public static AsyncRequestProducer create(HttpRequest request,
+                                              JsonNode jsonObject,
+                                              ObjectMapper objectMapper,
+                                              ByteBufferPool bufferPool) {
+        return new JsonRequestObjectProducer(request, new JsonNodeEntityProducer(jsonObject, objectMapper, bufferPool));
+    }
+
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a serialized JSON object as a message body. The object gets serialized
+     * incrementally on a thread supplied by the given executor, keeping at most
+     * {@code bufferSize} bytes of generated content in memory.
+     *
+     * @param request the request message head.
+     * @param jsonObject the JSON object to be enclosed as a message body.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferSize the maximum amount of generated content to buffer.
+     * @param executor the executor to run content generation.
+     * @param <T> the type of objects used by the producer.
+     * @return the request producer.
+     */
+    public static <T> AsyncRequestProducer create(HttpRequest request,
+                                                  T jsonObject,
+                                                  ObjectMapper objectMapper,
+                                                  int bufferSize,
+                                                  Executor executor) {
+        return new JsonRequestObjectProducer(request, new JsonObjectEntityProducer<>(jsonObject, objectMapper, bufferSize, executor));
+    }
+
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a serialized JSON object as a message body. The object gets serialized
+     * incrementally on a thread supplied by the given executor, keeping at most
+     * {@code bufferSize} bytes of generated content in memory.
+     *
+     * @param request the request message head.
+     * @param jsonObject the JSON object to be enclosed as a message body.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferSize the maximum amount of generated content to buffer.
+     * @param executor the executor to run content generation.
+     * @return the request producer.
+     */
+    public static AsyncRequestProducer create(HttpRequest request,
+                                              JsonNode jsonObject,
+                                              ObjectMapper objectMapper,
+                                              int bufferSize,
+                                              Executor executor) {
+        return new JsonRequestObjectProducer(request, new JsonNodeEntityProducer(jsonObject, objectMapper, bufferSize, executor));
+    }
+
     /**
      * Creates {@link AsyncRequestProducer} that generates an HTTP request
      * enclosing a sequence of serialized JSON object as a message body.
@@ -75,6 +198,88 @@ public static <T> AsyncRequestProducer create(HttpRequest request,
         return new JsonRequestObjectProducer(request, new JsonSequenceEntityProducer<>(objectMapper, objectProducer));
     }
 
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a sequence of serialized JSON object as a message body framed
+     * using the given sequence format.
+     *
+     * @param request the request message head.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param format the sequence format.
+     * @param objectProducer the JSON object producer.
+     * @return the request producer.
+     */
+    public static <T> AsyncRequestProducer create(HttpRequest request,
+                                                  ObjectMapper objectMapper,
+                                                  JsonSequenceFormat format,
+                                                  ObjectProducer<T> objectProducer) {
+        return new JsonRequestObjectProducer(request, new JsonSequenceEntityProducer<>(objectMapper, format, objectProducer));
+    }
+
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a serialized JSON object as a message body compressed
+     * using the given content coding.
+     *
+     * @param request the request message head.
+     * @param jsonObject the JSON object to be enclosed as a message body.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param contentCoding the content coding.
+     * @param compressionLevel the compression level (0-9) or {@code -1} for the default level.
+     * @param <T> the type of objects used by the producer.
+     * @return the request producer.
+     */
+    public static <T> AsyncRequestProducer create(HttpRequest request,
+                                                  T jsonObject,
+                                                  ObjectMapper objectMapper,
+                                                  ContentCoding contentCoding,
+                                                  int compressionLevel) {
+        return new JsonRequestObjectProducer(request, new CompressingEntityProducer(
+                new JsonObjectEntityProducer<>(jsonObject, objectMapper), contentCoding, compressionLevel));
+    }
+
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a sequence of serialized JSON object as a message body framed
+     * using the given sequence format and compressed using the given content coding.
+     * Content is compressed and flushed incrementally as objects get written.
+     *
+     * @param request the request message head.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param format the sequence format.
+     * @param contentCoding the content coding.
+     * @param compressionLevel the compression level (0-9) or {@code -1} for the default level.
+     * @param objectProducer the JSON object producer.
+     * @return the request producer.
+     */
+    public static <T> AsyncRequestProducer create(HttpRequest request,
+                                                  ObjectMapper objectMapper,
+                                                  JsonSequenceFormat format,
+                                                  ContentCoding contentCoding,
+                                                  int compressionLevel,
+                                                  ObjectProducer<T> objectProducer) {
+        return new JsonRequestObjectProducer(request, new CompressingEntityProducer(
+                new JsonSequenceEntityProducer<>(objectMapper, format, objectProducer), contentCoding, compressionLevel, true));
+    }
+
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing a sequence of serialized JSON object as a message body. The content gets
+     * buffered using buffers drawn from the given pool, which may allocate direct buffers.
+     *
+     * @param request the request message head.
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param bufferPool the content buffer pool.
+     * @param objectProducer the JSON object producer.
+     * @return the request producer.
+     */
+    public static <T> AsyncRequestProducer create(HttpRequest request,
+                                                  ObjectMapper objectMapper,
+                                                  ByteBufferPool bufferPool,
+                                                  ObjectProducer<T> objectProducer) {
+        return new JsonRequestObjectProducer(request, new JsonSequenceEntityProducer<>(objectMapper, 4096, bufferPool, objectProducer));
+    }
+
     /**
      * Creates {@link AsyncRequestProducer} that generates an HTTP request
      * enclosing JSON content generated using the provided {@link JsonGenerator}.
@@ -90,4 +295,22 @@ public static AsyncRequestProducer create(HttpRequest request,
         return new JsonRequestObjectProducer(request, new JsonTokenEntityProducer(jsonFactory, consumer));
     }
 
+    /**
+     * Creates {@link AsyncRequestProducer} that generates an HTTP request
+     * enclosing JSON content generated using the provided {@link JsonGenerator}. The content gets
+     * buffered using buffers drawn from the given pool, which may allocate direct buffers.
+     *
+     * @param request the request message head.
+     * @param jsonFactory JSON factory.
+     * @param consumer the recipient of JSON content generator.
+     * @param bufferPool the content buffer pool.
+     * @return the request producer.
+     */
+    public static AsyncRequestProducer create(HttpRequest request,
+                                              JsonFactory jsonFactory,
+                                              JsonConsumer<JsonGenerator> consumer,
+                                              ByteBufferPool bufferPool) {
+        return new JsonRequestObjectProducer(request, new JsonTokenEntityProducer(jsonFactory, consumer, bufferPool));
+    }
+
 }
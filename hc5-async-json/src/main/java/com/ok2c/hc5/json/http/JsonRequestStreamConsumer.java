@@ -30,6 +30,13 @@
 
 final class JsonRequestStreamConsumer<T> extends JsonStreamConsumer<HttpRequest, T> implements AsyncRequestConsumer<T> {
 
+    public JsonRequestStreamConsumer(Supplier<AsyncEntityConsumer<T>> consumerSupplier,
+                                     Supplier<AsyncEntityConsumer<T>> lineConsumerSupplier,
+                                     Supplier<AsyncEntityConsumer<T>> textSequenceConsumerSupplier,
+                                     JsonConsumer<HttpRequest> messageConsumer) {
+        super(consumerSupplier, lineConsumerSupplier, textSequenceConsumerSupplier, messageConsumer);
+    }
+
     public JsonRequestStreamConsumer(Supplier<AsyncEntityConsumer<T>> consumerSupplier,
                                      JsonConsumer<HttpRequest> messageConsumer) {
         super(consumerSupplier, messageConsumer);
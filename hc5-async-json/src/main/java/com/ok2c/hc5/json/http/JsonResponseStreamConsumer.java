@@ -30,6 +30,13 @@
 
 final class JsonResponseStreamConsumer<T> extends JsonStreamConsumer<HttpResponse, T> implements AsyncResponseConsumer<T> {
 
+    public JsonResponseStreamConsumer(Supplier<AsyncEntityConsumer<T>> consumerSupplier,
+                                      Supplier<AsyncEntityConsumer<T>> lineConsumerSupplier,
+                                      Supplier<AsyncEntityConsumer<T>> textSequenceConsumerSupplier,
+                                      JsonConsumer<HttpResponse> messageConsumer) {
+        super(consumerSupplier, lineConsumerSupplier, textSequenceConsumerSupplier, messageConsumer);
+    }
+
     public JsonResponseStreamConsumer(Supplier<AsyncEntityConsumer<T>> consumerSupplier,
                                       JsonConsumer<HttpResponse> messageConsumer) {
         super(consumerSupplier, messageConsumer);
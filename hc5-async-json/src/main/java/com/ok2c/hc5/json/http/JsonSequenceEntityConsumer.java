@@ -17,14 +17,23 @@
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import org.apache.hc.core5.util.Args;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.ok2c.hc5.json.FlowControlledResultSink;
 import com.ok2c.hc5.json.JsonResultSink;
 import com.ok2c.hc5.json.JsonTokenConsumer;
 import com.ok2c.hc5.json.TokenBufferAssembler;
@@ -33,6 +42,20 @@
  * {@link org.apache.hc.core5.http.nio.AsyncEntityConsumer} implementation that
  * converts incoming HTTP message entity into a sequence of instances
  * of the given class and passes those objects to a {@link JsonResultSink}.
+ * <p>
+ * If constructed with a finite capacity window the consumer reads no more than
+ * the given number of bytes ahead of the result processing. If the result sink
+ * is a {@link FlowControlledResultSink}, input capacity is granted only while
+ * the sink is able to accept more results.
+ * </p>
+ * <p>
+ * If constructed with an {@link Executor} the consumer de-serializes objects and
+ * passes them to the result sink on threads supplied by the executor instead
+ * of the I/O dispatch thread. Objects are still delivered one at a time and
+ * in the order of their appearance in the message. Input capacity is not granted
+ * while the given maximum number of objects are pending de-serialization.
+ * A finite capacity window is required in this mode.
+ * </p>
  *
  * @param <T> type of objects produced by this class.
  */
@@ -41,54 +64,197 @@
     private final ReadJsonValue<T> readJsonValue;
     private final JsonResultSink<T> resultSink;
     private final AtomicLong count;
+    private final AtomicLong resultCapacity;
+    private final Executor executor;
+    private final int maxPending;
+    private final Queue<Runnable> tasks;
+    private final AtomicInteger pending;
+    private final AtomicBoolean draining;
 
-    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, JavaType javaType, JsonResultSink<T> resultSink) {
-        super(Objects.requireNonNull(objectMapper, "Object mapper").getFactory());
+    private volatile boolean aborted;
+
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                      Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        super(Objects.requireNonNull(objectMapper, "Object mapper").getFactory(), capacityWindow);
+        if (executor != null) {
+            Args.check(capacityWindow != Integer.MAX_VALUE, "Capacity window must be finite if executor is given");
+        }
         this.readJsonValue = jsonParser -> objectMapper.readValue(jsonParser, javaType);
         this.resultSink = Objects.requireNonNull(resultSink, "Result sink");
         this.count = new AtomicLong(0);
+        this.resultCapacity = new AtomicLong(resultSink instanceof FlowControlledResultSink ? 0 : Long.MAX_VALUE);
+        this.executor = executor;
+        this.maxPending = Args.positive(maxPending, "Max pending");
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.pending = new AtomicInteger(0);
+        this.draining = new AtomicBoolean(false);
     }
 
-    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, JsonResultSink<T> resultSink) {
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, int capacityWindow,
+                                      Executor executor, int maxPending, JsonResultSink<T> resultSink) {
         this(Objects.requireNonNull(objectMapper, "Object mapper"),
                 objectMapper.getTypeFactory().constructType(objectClazz),
+                capacityWindow,
+                Objects.requireNonNull(executor, "Executor"),
+                maxPending,
                 resultSink);
     }
 
-    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, JsonResultSink<T> resultSink) {
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, int capacityWindow,
+                                      Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference),
+                capacityWindow,
+                Objects.requireNonNull(executor, "Executor"),
+                maxPending,
+                resultSink);
+    }
+
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                      JsonResultSink<T> resultSink) {
+        this(objectMapper, javaType, capacityWindow, null, Integer.MAX_VALUE, resultSink);
+    }
+
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, int capacityWindow,
+                                      JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                capacityWindow,
+                resultSink);
+    }
+
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, int capacityWindow,
+                                      JsonResultSink<T> resultSink) {
         this(Objects.requireNonNull(objectMapper, "Object mapper"),
                 objectMapper.getTypeFactory().constructType(typeReference),
+                capacityWindow,
                 resultSink);
     }
 
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, JavaType javaType, JsonResultSink<T> resultSink) {
+        this(objectMapper, javaType, Integer.MAX_VALUE, resultSink);
+    }
+
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, JsonResultSink<T> resultSink) {
+        this(objectMapper, objectClazz, Integer.MAX_VALUE, resultSink);
+    }
+
+    public JsonSequenceEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, JsonResultSink<T> resultSink) {
+        this(objectMapper, typeReference, Integer.MAX_VALUE, resultSink);
+    }
+
+    @Override
+    boolean isReady() {
+        return aborted || resultCapacity.get() > 0 && pending.get() < maxPending;
+    }
+
+    private void dispatch(Runnable task) {
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        if (aborted) {
+            return;
+        }
+        tasks.offer(task);
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                draining.set(false);
+                abort(ex);
+            }
+        }
+    }
+
+    private void drain() {
+        for (;;) {
+            try {
+                Runnable task;
+                while (!aborted && (task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException ex) {
+                        abort(ex);
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (aborted || tasks.isEmpty() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fails the result and discards pending objects along with the rest
+     * of the message body.
+     */
+    private void abort(Exception cause) {
+        aborted = true;
+        tasks.clear();
+        failed(cause);
+        try {
+            signalCapacity();
+        } catch (IOException ignore) {
+        }
+    }
+
     @Override
     protected JsonTokenConsumer createJsonTokenConsumer(Consumer<Long> resultConsumer) {
+        if (resultSink instanceof FlowControlledResultSink) {
+            ((FlowControlledResultSink<T>) resultSink).updateCapacity(increment -> {
+                if (resultCapacity.addAndGet(increment) > 0) {
+                    signalCapacity();
+                }
+            });
+        }
         return new TokenBufferAssembler(new JsonResultSink<TokenBuffer>() {
 
 
             @Override
             public void begin(int sizeHint) {
-                resultSink.begin(sizeHint);
+                dispatch(() -> resultSink.begin(sizeHint));
             }
 
             @Override
             public void accept(TokenBuffer tokenBuffer) {
-                try {
-                    JsonParser jsonParser = tokenBuffer != null ? tokenBuffer.asParserOnFirstToken() : null;
-                    T result = jsonParser != null ? readJsonValue.readValue(jsonParser) : null;
-                    if (result != null) {
-                        count.incrementAndGet();
-                        resultSink.accept(result);
+                pending.incrementAndGet();
+                dispatch(() -> {
+                    try {
+                        JsonParser jsonParser = tokenBuffer != null ? tokenBuffer.asParserOnFirstToken() : null;
+                        T result = jsonParser != null ? readJsonValue.readValue(jsonParser) : null;
+                        if (result != null) {
+                            count.incrementAndGet();
+                            resultCapacity.decrementAndGet();
+                            resultSink.accept(result);
+                        }
+                    } catch (IOException ex) {
+                        if (executor != null) {
+                            abort(ex);
+                        } else {
+                            failed(ex);
+                        }
+                    } finally {
+                        pending.decrementAndGet();
                     }
-                } catch (IOException ex) {
-                    failed(ex);
-                }
+                    if (executor != null) {
+                        try {
+                            signalCapacity();
+                        } catch (IOException ex) {
+                            failed(ex);
+                        }
+                    }
+                });
             }
 
             @Override
             public void end() {
-                resultSink.end();
-                resultConsumer.accept(count.get());
+                dispatch(() -> {
+                    resultSink.end();
+                    resultConsumer.accept(count.get());
+                });
             }
 
         });
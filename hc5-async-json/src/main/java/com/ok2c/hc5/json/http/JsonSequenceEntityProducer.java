@@ -17,17 +17,44 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
  * {@link org.apache.hc.core5.http.nio.AsyncEntityProducer} implementation that
  * generates a message body containing serialized content of a sequence of JSON objects.
+ * <p>
+ * Objects get serialized by the threads writing them to the {@link ObjectChannel}
+ * using reusable JSON generators and handed over to the I/O reactor through
+ * a lock-free queue. The I/O reactor only frames and drains serialized content.
+ * If a buffer pool is given, serialized objects get packed into blocks drawn from
+ * the pool; a block is returned to the pool once all objects packed into it have
+ * been written out.
+ * </p>
+ * <p>
+ * The {@link ObjectProducer} gets invoked whenever the amount of serialized content
+ * pending transmission falls below the low watermark. Once pending content reaches
+ * the high watermark {@link ObjectChannel#write(Object)} returns zero and rejects
+ * the object. The producer is expected to stop writing and resume the next time
+ * it gets invoked.
+ * </p>
  *
  * @param <T> type of objects used by this class.
  */
@@ -35,33 +62,128 @@
 
     private enum State { ACTIVE, FLUSHING, END_STREAM }
 
+    // Marks the writer count once no more writers get admitted
+    private static final int CLOSED = Integer.MIN_VALUE;
+
     private final ObjectMapper objectMapper;
+    private final JsonSequenceFormat format;
     private final int initSize;
-    private final InternalBuffer buffer;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final ByteBufferPool bufferPool;
     private final ObjectProducer<T> objectProducer;
-    private final OutputStream outputStream;
+    private final Queue<Chunk> chunks;
+    private final Queue<ChunkSerializer> serializers;
+    private final AtomicLong pendingBytes;
+    private final AtomicBoolean suspended;
+    private final AtomicInteger writers;
+    private final ObjectChannel<T> objectChannel;
+    private final ByteBuffer separator;
 
     private volatile State state;
+    private volatile DataStreamChannel dataChannel;
 
-    public JsonSequenceEntityProducer(ObjectMapper objectMapper, int initSize, ObjectProducer<T> objectProducer) {
+    // Accessed by the I/O reactor only
+    private ByteBuffer framing;
+    private Chunk chunk;
+    private boolean started;
+    private boolean closing;
+
+    /**
+     * Creates a producer that frames JSON objects using the given sequence format
+     * and caps the amount of serialized content pending transmission.
+     *
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param initSize the initial buffer size.
+     * @param bufferPool the buffer pool. May be {@code null}.
+     * @param format the sequence format.
+     * @param lowWatermark the amount of pending content below which the object producer
+     *                     gets invoked.
+     * @param highWatermark the amount of pending content at which objects get rejected.
+     * @param objectProducer the JSON object producer.
+     */
+    public JsonSequenceEntityProducer(ObjectMapper objectMapper,
+                                      int initSize,
+                                      ByteBufferPool bufferPool,
+                                      JsonSequenceFormat format,
+                                      int lowWatermark,
+                                      int highWatermark,
+                                      ObjectProducer<T> objectProducer) {
+        Args.positive(lowWatermark, "Low watermark");
+        Args.check(highWatermark >= lowWatermark, "High watermark may not be less than low watermark");
         this.objectMapper = objectMapper;
+        this.format = Objects.requireNonNull(format, "Sequence format");
         this.initSize = initSize;
-        this.buffer = new InternalBuffer(initSize);
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.bufferPool = bufferPool;
         this.objectProducer = objectProducer;
-        this.state = State.ACTIVE;
-        this.outputStream = new OutputStream() {
+        this.chunks = new ConcurrentLinkedQueue<>();
+        this.serializers = new ConcurrentLinkedQueue<>();
+        this.pendingBytes = new AtomicLong(0);
+        this.suspended = new AtomicBoolean(false);
+        this.writers = new AtomicInteger(0);
+        this.objectChannel = new ObjectChannel<T>() {
 
             @Override
-            public void write(byte[] b, int off, int len) throws IOException {
-                buffer.write(b, off, len);
+            public int write(T obj) throws IOException {
+                return writeObject(obj);
             }
 
             @Override
-            public void write(int b) throws IOException {
-                buffer.write(b);
+            public void endStream() throws IOException {
+                endObjectStream();
             }
 
         };
+        byte[] separatorBytes = format.getSeparator().getBytes(StandardCharsets.US_ASCII);
+        this.separator = separatorBytes.length > 0 ? ByteBuffer.wrap(separatorBytes) : null;
+        this.state = State.ACTIVE;
+    }
+
+    /**
+     * Creates a producer that frames JSON objects using the given sequence format
+     * and draws buffers for serialized objects from the given pool, returning them
+     * to the pool once written out.
+     *
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param initSize the initial buffer size.
+     * @param bufferPool the buffer pool. May be {@code null}.
+     * @param format the sequence format.
+     * @param objectProducer the JSON object producer.
+     */
+    public JsonSequenceEntityProducer(ObjectMapper objectMapper,
+                                      int initSize,
+                                      ByteBufferPool bufferPool,
+                                      JsonSequenceFormat format,
+                                      ObjectProducer<T> objectProducer) {
+        this(objectMapper, initSize, bufferPool, format, initSize, Integer.MAX_VALUE, objectProducer);
+    }
+
+    /**
+     * Creates a producer that draws buffers for serialized objects from the given pool
+     * and returns them to the pool once written out.
+     *
+     * @param objectMapper the object mapper to be used to serialize JSON content.
+     * @param initSize the initial buffer size.
+     * @param bufferPool the buffer pool.
+     * @param objectProducer the JSON object producer.
+     */
+    public JsonSequenceEntityProducer(ObjectMapper objectMapper,
+                                      int initSize,
+                                      ByteBufferPool bufferPool,
+                                      ObjectProducer<T> objectProducer) {
+        this(objectMapper, initSize, bufferPool, JsonSequenceFormat.CONCATENATED, objectProducer);
+    }
+
+    public JsonSequenceEntityProducer(ObjectMapper objectMapper,
+                                      JsonSequenceFormat format,
+                                      ObjectProducer<T> objectProducer) {
+        this(objectMapper, 4096, null, format, objectProducer);
+    }
+
+    public JsonSequenceEntityProducer(ObjectMapper objectMapper, int initSize, ObjectProducer<T> objectProducer) {
+        this(objectMapper, initSize, null, objectProducer);
     }
 
     public JsonSequenceEntityProducer(ObjectMapper objectMapper, ObjectProducer<T> objectProducer) {
@@ -80,7 +202,7 @@ public final Set<String> getTrailerNames() {
 
     @Override
     public final String getContentType() {
-        return ContentType.APPLICATION_JSON.toString();
+        return format.getContentType().toString();
     }
 
     @Override
@@ -100,53 +222,126 @@ public boolean isChunked() {
 
     @Override
     public final int available() {
-        synchronized (buffer) {
-            return buffer.length();
+        long pending = pendingBytes.get();
+        if (pending > 0) {
+            return (int) Math.min(pending, Integer.MAX_VALUE);
+        }
+        return state == State.FLUSHING ? 1 : 0;
+    }
+
+    private int writeObject(T obj) throws IOException {
+        // Writers admitted prior to #endStream() hold off the end of stream so that
+        // an object accepted concurrently cannot be lost. Writers get rejected
+        // once the end of stream has been signalled
+        int current;
+        do {
+            current = writers.get();
+            if ((current & CLOSED) != 0) {
+                return 0;
+            }
+        } while (!writers.compareAndSet(current, current + 1));
+        int written = 0;
+        try {
+            if (pendingBytes.get() >= highWatermark) {
+                suspended.set(true);
+                return 0;
+            }
+            ChunkSerializer serializer = serializers.poll();
+            if (serializer == null) {
+                serializer = new ChunkSerializer();
+            }
+            Chunk serialized = serializer.serialize(obj);
+            serializers.offer(serializer);
+            pendingBytes.addAndGet(serialized.data.remaining());
+            chunks.offer(serialized);
+            written = 1;
+            return written;
+        } finally {
+            if (writers.decrementAndGet() == CLOSED || written > 0) {
+                requestOutput();
+            }
+        }
+    }
+
+    private void endObjectStream() {
+        if (state == State.ACTIVE) {
+            writers.getAndUpdate(current -> current | CLOSED);
+            state = State.FLUSHING;
+            requestOutput();
+        }
+    }
+
+    private void requestOutput() {
+        DataStreamChannel channel = dataChannel;
+        if (channel != null) {
+            channel.requestOutput();
         }
     }
 
     @Override
     public final void produce(final DataStreamChannel channel) throws IOException {
-        synchronized (buffer) {
-            if (state == State.ACTIVE && buffer.length() < initSize) {
-                objectProducer.produce(new ObjectChannel<T>() {
-
-                    @Override
-                    public int write(T obj) throws IOException {
-                        synchronized (buffer) {
-                            objectMapper.writeValue(outputStream, obj);
-                            channel.write(buffer.getByteBuffer());
-                            return 1;
-                        }
-                    }
-
-                    @Override
-                    public void endStream() throws IOException {
-                        synchronized (buffer) {
-                            if (buffer.hasData()) {
-                                channel.write(buffer.getByteBuffer());
-                            }
-                            if (buffer.hasData()) {
-                                channel.requestOutput();
-                                state = State.FLUSHING;
-                            } else {
-                                channel.endStream(null);
-                                state = State.END_STREAM;
-                            }
-                        }
-                    }
+        dataChannel = channel;
+        if (state == State.ACTIVE && pendingBytes.get() < lowWatermark) {
+            suspended.set(false);
+            objectProducer.produce(objectChannel);
+        }
+        drain(channel);
+        if (state == State.ACTIVE && suspended.get() && pendingBytes.get() < lowWatermark) {
+            // Make sure the suspended object producer gets re-invoked once drained
+            channel.requestOutput();
+        }
+    }
 
-                });
+    private void drain(final DataStreamChannel channel) throws IOException {
+        for (;;) {
+            if (framing != null) {
+                channel.write(framing);
+                if (framing.hasRemaining()) {
+                    return;
+                }
+                framing = null;
             }
-            if (state.compareTo(State.END_STREAM) < 0 && buffer.hasData()) {
-                channel.write(buffer.getByteBuffer());
+            if (chunk != null) {
+                int bytesWritten = channel.write(chunk.data);
+                pendingBytes.addAndGet(-bytesWritten);
+                if (chunk.data.hasRemaining()) {
+                    return;
+                }
+                chunk.release();
+                chunk = null;
             }
-            if (state == State.FLUSHING && !buffer.hasData()) {
+            if (closing) {
                 channel.endStream(null);
                 state = State.END_STREAM;
+                closing = false;
+                return;
+            }
+            // Flushing state must be observed before polling so that no chunk
+            // enqueued prior to #endStream() can be missed. Writers admitted prior
+            // to #endStream() get to enqueue their chunk first
+            boolean flushing = state == State.FLUSHING;
+            if (flushing && writers.get() != CLOSED) {
+                return;
+            }
+            Chunk next = chunks.poll();
+            if (next != null) {
+                if (!started) {
+                    framing = format == JsonSequenceFormat.ARRAY ? ByteBuffer.wrap(new byte[] {'['}) : null;
+                    started = true;
+                } else if (separator != null) {
+                    separator.clear();
+                    framing = separator;
+                }
+                chunk = next;
+            } else if (flushing) {
+                if (format == JsonSequenceFormat.ARRAY) {
+                    framing = ByteBuffer.wrap(started ? new byte[] {']'} : new byte[] {'[', ']'});
+                }
+                closing = true;
+            } else {
+                return;
             }
         }
-
     }
 
     @Override
@@ -155,8 +350,146 @@ public void failed(Exception cause) {
 
     @Override
     public void releaseResources() {
-        buffer.clear();
         state = State.ACTIVE;
+        writers.getAndUpdate(current -> current & ~CLOSED);
+        dataChannel = null;
+        if (chunk != null) {
+            chunk.release();
+            chunk = null;
+        }
+        framing = null;
+        started = false;
+        closing = false;
+        Chunk next;
+        while ((next = chunks.poll()) != null) {
+            next.release();
+        }
+        pendingBytes.set(0);
+        suspended.set(false);
+        ChunkSerializer serializer;
+        while ((serializer = serializers.poll()) != null) {
+            serializer.dispose();
+        }
+    }
+
+    /**
+     * Pooled buffer shared by serialized objects packed into it.
+     */
+    private final class Block {
+
+        private final ByteBuffer buffer;
+        private final AtomicInteger refCount;
+
+        Block(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.refCount = new AtomicInteger(1);
+        }
+
+        void release() {
+            if (refCount.decrementAndGet() == 0) {
+                bufferPool.release(buffer);
+            }
+        }
+
+    }
+
+    private final class Chunk {
+
+        final ByteBuffer data;
+        final Block block;
+
+        Chunk(ByteBuffer data, Block block) {
+            this.data = data;
+            this.block = block;
+        }
+
+        void release() {
+            if (block != null) {
+                block.release();
+            }
+        }
+
+    }
+
+    private final class ChunkSerializer extends OutputStream {
+
+        private final SequenceWriter sequenceWriter;
+        private final byte[] prefix;
+        private final byte[] terminator;
+
+        private byte[] buf;
+        private int count;
+        private Block block;
+
+        ChunkSerializer() throws IOException {
+            this.buf = new byte[initSize];
+            this.prefix = format.getPrefix().getBytes(StandardCharsets.US_ASCII);
+            this.terminator = format.getTerminator().getBytes(StandardCharsets.US_ASCII);
+            ObjectWriter objectWriter = objectMapper.writer().withRootValueSeparator("");
+            if (terminator.length > 0 && prefix.length == 0) {
+                // Line delimited content may not contain line breaks within objects
+                objectWriter = objectWriter.without(SerializationFeature.INDENT_OUTPUT);
+            }
+            this.sequenceWriter = objectWriter.writeValues(this);
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(capacity, buf.length << 1));
+            }
+        }
+
+        Chunk serialize(T obj) throws IOException {
+            count = 0;
+            if (prefix.length > 0) {
+                write(prefix, 0, prefix.length);
+            }
+            sequenceWriter.write(obj).flush();
+            if (terminator.length > 0) {
+                write(terminator, 0, terminator.length);
+            }
+            if (bufferPool != null) {
+                if (block == null || block.buffer.remaining() < count) {
+                    if (block != null) {
+                        block.release();
+                    }
+                    block = new Block(bufferPool.acquire(Math.max(count, initSize)));
+                }
+                int start = block.buffer.position();
+                block.buffer.put(buf, 0, count);
+                ByteBuffer data = block.buffer.duplicate();
+                data.limit(start + count);
+                data.position(start);
+                block.refCount.incrementAndGet();
+                return new Chunk(data, block);
+            }
+            return new Chunk(ByteBuffer.wrap(Arrays.copyOf(buf, count)), null);
+        }
+
+        void dispose() {
+            if (block != null) {
+                block.release();
+                block = null;
+            }
+            try {
+                sequenceWriter.close();
+            } catch (final IOException ignore) {
+            }
+        }
+
     }
 
 }
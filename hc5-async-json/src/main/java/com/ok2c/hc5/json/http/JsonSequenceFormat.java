@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import org.apache.hc.core5.http.ContentType;
+
+/**
+ * Framing of a sequence of JSON objects within a single message body.
+ */
+public enum JsonSequenceFormat {
+
+    /**
+     * JSON objects written one after another without a separator.
+     */
+    CONCATENATED("", "", "", ContentType.APPLICATION_JSON),
+
+    /**
+     * Newline delimited JSON (NDJSON, JSON Lines): JSON objects serialized
+     * without line breaks, each followed by a line feed.
+     */
+    NEWLINE_DELIMITED("", "", "\n", JsonContentTypes.APPLICATION_NDJSON),
+
+    /**
+     * JSON objects enclosed in a top-level JSON array.
+     */
+    ARRAY("", ",", "", ContentType.APPLICATION_JSON),
+
+    /**
+     * JSON text sequence as defined by RFC 7464: JSON objects each preceded
+     * by a record separator (0x1E) and followed by a line feed.
+     */
+    JSON_SEQ("\u001E", "", "\n", JsonContentTypes.APPLICATION_JSON_SEQ);
+
+    private final String prefix;
+    private final String separator;
+    private final String terminator;
+    private final ContentType contentType;
+
+    JsonSequenceFormat(String prefix, String separator, String terminator, ContentType contentType) {
+        this.prefix = prefix;
+        this.separator = separator;
+        this.terminator = terminator;
+        this.contentType = contentType;
+    }
+
+    String getPrefix() {
+        return prefix;
+    }
+
+    String getSeparator() {
+        return separator;
+    }
+
+    String getTerminator() {
+        return terminator;
+    }
+
+    ContentType getContentType() {
+        return contentType;
+    }
+
+}
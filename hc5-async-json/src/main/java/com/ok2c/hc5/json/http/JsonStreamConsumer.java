@@ -36,16 +36,27 @@
 class JsonStreamConsumer<H extends HttpMessage, T> implements AsyncDataConsumer {
 
     private final Supplier<AsyncEntityConsumer<T>> entityConsumerSupplier;
+    private final Supplier<AsyncEntityConsumer<T>> lineConsumerSupplier;
+    private final Supplier<AsyncEntityConsumer<T>> textSequenceConsumerSupplier;
     private final JsonConsumer<H> messageConsumer;
     private final AtomicReference<AsyncEntityConsumer<T>> entityConsumerRef;
 
     public JsonStreamConsumer(Supplier<AsyncEntityConsumer<T>> entityConsumerSupplier,
+                              Supplier<AsyncEntityConsumer<T>> lineConsumerSupplier,
+                              Supplier<AsyncEntityConsumer<T>> textSequenceConsumerSupplier,
                               JsonConsumer<H> messageConsumer) {
         this.entityConsumerSupplier = entityConsumerSupplier;
+        this.lineConsumerSupplier = lineConsumerSupplier;
+        this.textSequenceConsumerSupplier = textSequenceConsumerSupplier;
         this.messageConsumer = messageConsumer;
         this.entityConsumerRef = new AtomicReference<>();
     }
 
+    public JsonStreamConsumer(Supplier<AsyncEntityConsumer<T>> entityConsumerSupplier,
+                              JsonConsumer<H> messageConsumer) {
+        this(entityConsumerSupplier, null, null, messageConsumer);
+    }
+
     final void consumeMessage(H messageHead, EntityDetails entityDetails,
                               FutureCallback<T> resultCallback) throws HttpException, IOException {
         if (messageConsumer != null) {
@@ -58,12 +69,17 @@ final void consumeMessage(H messageHead, EntityDetails entityDetails,
             return;
         }
         ContentType contentType = ContentType.parseLenient(entityDetails.getContentType());
-        if (ContentType.APPLICATION_JSON.isSameMimeType(contentType)) {
+        if (lineConsumerSupplier != null && JsonContentTypes.isLineDelimited(contentType)) {
+            entityConsumerRef.set(lineConsumerSupplier.get());
+        } else if (textSequenceConsumerSupplier != null && JsonContentTypes.isTextSequence(contentType)) {
+            entityConsumerRef.set(textSequenceConsumerSupplier.get());
+        } else if (JsonContentTypes.isJson(contentType)) {
             AsyncEntityConsumer<T> entityConsumer = entityConsumerSupplier.get();
             entityConsumerRef.set(entityConsumer);
         } else {
             entityConsumerRef.set(new NoopJsonEntityConsumer<>());
         }
+        entityConsumerRef.set(DecompressingEntityConsumer.decorate(entityConsumerRef.get(), entityDetails));
         entityConsumerRef.get().streamStart(entityDetails, resultCallback);
     }
 
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.util.Args;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ok2c.hc5.json.JsonMessageException;
+
+/**
+ * {@link org.apache.hc.core5.http.nio.AsyncEntityConsumer} implementation that
+ * de-serializes incoming HTTP message entity into an instance of the given class
+ * incrementally as content arrives.
+ * <p>
+ * Content is passed through a bounded buffer to a thread supplied by the given
+ * executor that de-serializes it directly from the stream without staging it
+ * in a {@link com.fasterxml.jackson.databind.util.TokenBuffer}. Input capacity
+ * is granted to the underlying data stream only as the buffer gets drained,
+ * so no more than {@code bufferSize} bytes of content are held in memory.
+ * </p>
+ *
+ * @param <T> type of objects produced by this class.
+ */
+public class JsonStreamingObjectEntityConsumer<T> implements AsyncEntityConsumer<T> {
+
+    private final ObjectMapper objectMapper;
+    private final JavaType javaType;
+    private final int bufferSize;
+    private final Executor executor;
+    private final InternalBuffer buffer;
+    private final AtomicReference<FutureCallback<T>> resultCallbackRef;
+    private final AtomicReference<T> resultRef;
+
+    private volatile CapacityChannel capacityChannel;
+    private volatile boolean endStream;
+    private volatile boolean aborted;
+    private volatile boolean completed;
+    private boolean unbounded;
+    private int granted;
+
+    public JsonStreamingObjectEntityConsumer(ObjectMapper objectMapper,
+                                             JavaType javaType,
+                                             int bufferSize,
+                                             Executor executor) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "Object mapper");
+        this.javaType = Objects.requireNonNull(javaType, "Java type");
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
+        this.executor = Objects.requireNonNull(executor, "Executor");
+        this.buffer = new InternalBuffer(Math.min(bufferSize, 8192));
+        this.resultCallbackRef = new AtomicReference<>(null);
+        this.resultRef = new AtomicReference<>(null);
+    }
+
+    public JsonStreamingObjectEntityConsumer(ObjectMapper objectMapper,
+                                             Class<T> objectClazz,
+                                             int bufferSize,
+                                             Executor executor) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz), bufferSize, executor);
+    }
+
+    public JsonStreamingObjectEntityConsumer(ObjectMapper objectMapper,
+                                             TypeReference<T> typeReference,
+                                             int bufferSize,
+                                             Executor executor) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference), bufferSize, executor);
+    }
+
+    @Override
+    public final void streamStart(EntityDetails entityDetails, FutureCallback<T> resultCallback) throws HttpException, IOException {
+        ContentType contentType = ContentType.parseLenient(entityDetails.getContentType());
+        if (contentType != null && !JsonContentTypes.isJson(contentType)) {
+            throw new JsonMessageException("Unexpected content type: " + contentType);
+        }
+        resultCallbackRef.set(resultCallback);
+        executor.execute(() -> {
+            try (JsonParser jsonParser = objectMapper.getFactory().createParser(new ContentInputStream())) {
+                T result = jsonParser.nextToken() != null ? objectMapper.readValue(jsonParser, javaType) : null;
+                resultRef.set(result);
+                completed = true;
+                signalCapacity();
+                FutureCallback<T> callback = resultCallbackRef.getAndSet(null);
+                if (callback != null) {
+                    callback.completed(result);
+                }
+            } catch (final Exception ex) {
+                completed = true;
+                failed(ex);
+                try {
+                    // Let the rest of the message body be drained and discarded
+                    signalCapacity();
+                } catch (final IOException ignore) {
+                }
+            }
+        });
+    }
+
+    /**
+     * Grants input capacity to the underlying data stream for the free space left
+     * in the buffer, or unlimited capacity once the result has been produced.
+     */
+    private void signalCapacity() throws IOException {
+        CapacityChannel channel = capacityChannel;
+        if (channel == null) {
+            return;
+        }
+        int increment;
+        synchronized (buffer) {
+            if (completed) {
+                if (unbounded) {
+                    return;
+                }
+                unbounded = true;
+                increment = Integer.MAX_VALUE;
+            } else {
+                increment = bufferSize - buffer.length() - granted;
+                if (increment <= 0) {
+                    return;
+                }
+                granted += increment;
+            }
+        }
+        channel.update(increment);
+    }
+
+    @Override
+    public final void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        this.capacityChannel = capacityChannel;
+        signalCapacity();
+    }
+
+    @Override
+    public final void consume(ByteBuffer data) throws IOException {
+        if (data == null) {
+            return;
+        }
+        synchronized (buffer) {
+            granted = Math.max(granted - data.remaining(), 0);
+            if (completed || aborted) {
+                data.position(data.limit());
+            } else {
+                buffer.write(data);
+                buffer.notifyAll();
+            }
+        }
+        if (completed) {
+            signalCapacity();
+        }
+    }
+
+    @Override
+    public final void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+        synchronized (buffer) {
+            endStream = true;
+            buffer.notifyAll();
+        }
+    }
+
+    @Override
+    public final void failed(Exception cause) {
+        synchronized (buffer) {
+            aborted = true;
+            buffer.notifyAll();
+        }
+        FutureCallback<T> resultCallback = resultCallbackRef.getAndSet(null);
+        if (resultCallback != null) {
+            resultCallback.failed(cause);
+        }
+    }
+
+    @Override
+    public final T getContent() {
+        return resultRef.get();
+    }
+
+    @Override
+    public void releaseResources() {
+        synchronized (buffer) {
+            aborted = true;
+            buffer.release();
+            buffer.notifyAll();
+        }
+        capacityChannel = null;
+    }
+
+    private class ContentInputStream extends InputStream {
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int bytesRead;
+            synchronized (buffer) {
+                while (!buffer.hasData()) {
+                    if (aborted) {
+                        throw new InterruptedIOException("Message content processing aborted");
+                    }
+                    if (endStream) {
+                        return -1;
+                    }
+                    try {
+                        buffer.wait();
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException(ex.getMessage());
+                    }
+                }
+                ByteBuffer data = buffer.getByteBuffer();
+                bytesRead = Math.min(len, data.remaining());
+                data.get(b, off, bytesRead);
+            }
+            signalCapacity();
+            return bytesRead;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int bytesRead = read(b, 0, 1);
+            return bytesRead == -1 ? -1 : b[0] & 0xff;
+        }
+
+    }
+
+}
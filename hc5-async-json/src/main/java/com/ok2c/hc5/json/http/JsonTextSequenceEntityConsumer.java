@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityConsumer;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ok2c.hc5.json.JsonResultSink;
+
+/**
+ * {@link AsyncEntityConsumer} implementation that splits incoming JSON text
+ * sequence content (RFC 7464, {@code application/json-seq}) into records and
+ * de-serializes each record into an instance of the given class, passing those
+ * objects to a {@link JsonResultSink}.
+ * <p>
+ * Records are located by scanning for record separators (0x1E) and de-serialized
+ * directly from the input buffers where possible. As recommended by RFC 7464
+ * records that are not terminated by a line feed (possibly truncated), records
+ * that cannot be parsed and content preceding the first record separator get
+ * skipped. Parsing resumes with the next record. Records that are well-formed
+ * JSON but cannot be bound to the given class fail the message.
+ * </p>
+ * <p>
+ * If constructed with an {@link Executor} records get de-serialized in parallel
+ * by the executor. Objects are still passed to the result sink one at a time and
+ * in the order of their appearance in the message. No more than the given capacity
+ * window is read ahead and input capacity is not granted while the given maximum
+ * number of records are pending de-serialization.
+ * </p>
+ *
+ * @param <T> type of objects produced by this class.
+ */
+public class JsonTextSequenceEntityConsumer<T> extends AbstractJsonRecordEntityConsumer<T> {
+
+    static final byte RS = 0x1E;
+
+    private final AtomicLong skipped;
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                          Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        super(objectMapper, javaType, capacityWindow, Objects.requireNonNull(executor, "Executor"), maxPending,
+                resultSink, RS);
+        this.skipped = new AtomicLong(0);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, int capacityWindow,
+                                          Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                capacityWindow,
+                executor,
+                maxPending,
+                resultSink);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, int capacityWindow,
+                                          Executor executor, int maxPending, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference),
+                capacityWindow,
+                executor,
+                maxPending,
+                resultSink);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, JavaType javaType, int capacityWindow,
+                                          JsonResultSink<T> resultSink) {
+        super(objectMapper, javaType, capacityWindow, resultSink, RS);
+        this.skipped = new AtomicLong(0);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, int capacityWindow,
+                                          JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                capacityWindow,
+                resultSink);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, int capacityWindow,
+                                          JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference),
+                capacityWindow,
+                resultSink);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, JavaType javaType, JsonResultSink<T> resultSink) {
+        this(objectMapper, javaType, Integer.MAX_VALUE, resultSink);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, Class<T> objectClazz, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(objectClazz),
+                resultSink);
+    }
+
+    public JsonTextSequenceEntityConsumer(ObjectMapper objectMapper, TypeReference<T> typeReference, JsonResultSink<T> resultSink) {
+        this(Objects.requireNonNull(objectMapper, "Object mapper"),
+                objectMapper.getTypeFactory().constructType(typeReference),
+                resultSink);
+    }
+
+    @Override
+    boolean isSupported(ContentType contentType) {
+        return JsonContentTypes.isTextSequence(contentType);
+    }
+
+    @Override
+    void processRecord(byte[] buf, int off, int len, boolean first) throws IOException {
+        if (isBlank(buf, off, len)) {
+            return;
+        }
+        if (first || buf[off + len - 1] != '\n') {
+            skipped.incrementAndGet();
+            return;
+        }
+        decode(buf, off, len);
+    }
+
+    @Override
+    boolean skipMalformed(JsonProcessingException ex) {
+        // Only syntax errors are recoverable by skipping. Data binding errors
+        // may wrap a syntax error encountered within a container
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonParseException) {
+                skipped.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    void reset() {
+        skipped.set(0);
+    }
+
+    private static boolean isBlank(byte[] buf, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            if (!isWhitespace(buf[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of records skipped because they were truncated or malformed.
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+}
@@ -17,6 +17,8 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -33,6 +35,33 @@ public JsonTokenEntityProducer(JsonFactory jsonFactory, JsonConsumer<JsonGenerat
         this.consumer = consumer;
     }
 
+    public JsonTokenEntityProducer(JsonFactory jsonFactory,
+                                   JsonConsumer<JsonGenerator> consumer,
+                                   int bufferSize,
+                                   Executor executor) {
+        super(bufferSize, Objects.requireNonNull(executor, "Executor"));
+        this.jsonFactory = jsonFactory;
+        this.consumer = consumer;
+    }
+
+    public JsonTokenEntityProducer(JsonFactory jsonFactory,
+                                   JsonConsumer<JsonGenerator> consumer,
+                                   ByteBufferPool bufferPool) {
+        super(4096, Objects.requireNonNull(bufferPool, "Buffer pool"));
+        this.jsonFactory = jsonFactory;
+        this.consumer = consumer;
+    }
+
+    public JsonTokenEntityProducer(JsonFactory jsonFactory,
+                                   JsonConsumer<JsonGenerator> consumer,
+                                   int bufferSize,
+                                   Executor executor,
+                                   ByteBufferPool bufferPool) {
+        super(bufferSize, Objects.requireNonNull(executor, "Executor"), Objects.requireNonNull(bufferPool, "Buffer pool"));
+        this.jsonFactory = jsonFactory;
+        this.consumer = consumer;
+    }
+
     @Override
     final void generateJson(OutputStream outputStream) throws IOException {
         JsonGenerator generator = jsonFactory.createGenerator(outputStream);
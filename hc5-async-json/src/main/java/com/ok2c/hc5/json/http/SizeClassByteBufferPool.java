@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link ByteBufferPool} implementation that keeps released buffers in lock-free
+ * buckets of power-of-two size classes ranging from {@code minSize} to {@code maxSize}.
+ * Requests larger than {@code maxSize} are served with unpooled buffers. Once
+ * the total capacity of retained buffers reaches {@code maxRetained} bytes released
+ * buffers get discarded.
+ * <p>
+ * The pool can optionally allocate direct (off-heap) buffers, which lets the content
+ * be written to the socket without an intermediate copy. A pool with {@code maxRetained}
+ * of zero simply allocates a new buffer for each request.
+ * </p>
+ */
+public class SizeClassByteBufferPool implements ByteBufferPool {
+
+    private static final int MAX_SIZE_CLASS = 1 << 30;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long maxRetained;
+    private final boolean direct;
+    private final List<Queue<ByteBuffer>> buckets;
+    private final AtomicLong retained;
+
+    public SizeClassByteBufferPool(int minSize, int maxSize, long maxRetained, boolean direct) {
+        Args.positive(minSize, "Min size");
+        Args.check(maxSize >= minSize, "Max size may not be less than min size");
+        Args.check(maxSize <= MAX_SIZE_CLASS, "Max size may not exceed 2^30");
+        Args.notNegative(maxRetained, "Max retained");
+        this.minSize = roundUp(minSize);
+        this.maxSize = roundUp(maxSize);
+        this.maxRetained = maxRetained;
+        this.direct = direct;
+        int bucketCount = Integer.numberOfTrailingZeros(this.maxSize) - Integer.numberOfTrailingZeros(this.minSize) + 1;
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            this.buckets.add(new ConcurrentLinkedQueue<>());
+        }
+        this.retained = new AtomicLong(0);
+    }
+
+    public SizeClassByteBufferPool(int minSize, int maxSize, long maxRetained) {
+        this(minSize, maxSize, maxRetained, false);
+    }
+
+    /**
+     * Creates a pool with size classes from 4 KB to 1 MB retaining up to 16 MB.
+     */
+    public SizeClassByteBufferPool() {
+        this(4096, 1024 * 1024, 16 * 1024 * 1024);
+    }
+
+    private static int roundUp(int size) {
+        int highestBit = Integer.highestOneBit(size);
+        return highestBit == size ? size : highestBit << 1;
+    }
+
+    private int bucketIndex(int sizeClass) {
+        return Integer.numberOfTrailingZeros(sizeClass) - Integer.numberOfTrailingZeros(minSize);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public ByteBuffer acquire(int capacity) {
+        Args.notNegative(capacity, "Capacity");
+        if (capacity > maxSize) {
+            return allocate(capacity);
+        }
+        int sizeClass = Math.max(minSize, roundUp(capacity));
+        ByteBuffer buffer = buckets.get(bucketIndex(sizeClass)).poll();
+        if (buffer != null) {
+            retained.addAndGet(-sizeClass);
+            buffer.clear();
+            return buffer;
+        }
+        return allocate(sizeClass);
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "Buffer");
+        int capacity = buffer.capacity();
+        if (buffer.isDirect() != direct || capacity < minSize || capacity > maxSize || Integer.bitCount(capacity) != 1) {
+            return;
+        }
+        for (;;) {
+            long current = retained.get();
+            if (current + capacity > maxRetained) {
+                return;
+            }
+            if (retained.compareAndSet(current, current + capacity)) {
+                break;
+            }
+        }
+        buckets.get(bucketIndex(capacity)).offer(buffer);
+    }
+
+    /**
+     * Returns {@code true} if the pool allocates direct buffers.
+     *
+     * @return {@code true} for direct buffers.
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Returns total capacity of buffers currently retained by the pool.
+     *
+     * @return retained capacity in bytes.
+     */
+    public long getRetained() {
+        return retained.get();
+    }
+
+}
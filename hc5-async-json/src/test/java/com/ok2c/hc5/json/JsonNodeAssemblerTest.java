@@ -16,8 +16,13 @@
 package com.ok2c.hc5.json;
 
 import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -101,4 +106,84 @@ public void testJsonNodeAssembly() throws Exception {
         Assertions.assertThat(jsonNode2).isEqualTo((expectedObject2));
     }
 
+    @Test
+    public void testJsonNodeAssemblyDeeplyNested() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        JsonAsyncTokenizer jsonTokenizer = new JsonAsyncTokenizer(factory);
+
+        ObjectNode expectedObject = JsonNodeFactory.instance.objectNode();
+        StringBuilder buf = new StringBuilder();
+        ObjectNode currentObject = expectedObject;
+        for (int i = 0; i < 50; i++) {
+            buf.append("{\"level\":").append(i).append(",\"items\":[true,null,[").append(i).append("]],\"next\":");
+            currentObject.put("level", i);
+            currentObject.putArray("items").add(true).addNull().addArray().add(i);
+            currentObject = currentObject.putObject("next");
+        }
+        buf.append("{}");
+        for (int i = 0; i < 50; i++) {
+            buf.append('}');
+        }
+
+        JsonNodeAssembler jsonNodeAssembler = JsonNodeAssembler.create();
+        jsonTokenizer.initialize(new JsonTokenEventHandlerAdaptor(jsonNodeAssembler));
+        jsonTokenizer.consume(ByteBuffer.wrap(buf.toString().getBytes(StandardCharsets.US_ASCII)));
+        jsonTokenizer.streamEnd();
+
+        Assertions.assertThat(jsonNodeAssembler.getResult()).isEqualTo(expectedObject);
+    }
+
+    @Test
+    public void testJsonNodeAssemblyNumbers() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        JsonAsyncTokenizer jsonTokenizer = new JsonAsyncTokenizer(factory);
+
+        JsonNodeAssembler jsonNodeAssembler = JsonNodeAssembler.create();
+        jsonTokenizer.initialize(new JsonTokenEventHandlerAdaptor(jsonNodeAssembler));
+        jsonTokenizer.consume(ByteBuffer.wrap(("{\"int\":-12,\"long\":5000000000,\"big\":123456789012345678901234567890," +
+                "\"double\":1.5,\"huge\":1e400,\"values\":[7,-9000000000,98765432109876543210]}").getBytes(StandardCharsets.US_ASCII)));
+        jsonTokenizer.streamEnd();
+
+        ObjectNode expectedObject = JsonNodeFactory.instance.objectNode();
+        expectedObject.put("int", -12);
+        expectedObject.put("long", 5000000000L);
+        expectedObject.put("big", new BigInteger("123456789012345678901234567890"));
+        expectedObject.put("double", 1.5);
+        expectedObject.put("huge", new BigDecimal("1e400"));
+        expectedObject.putArray("values")
+                .add(7)
+                .add(-9000000000L)
+                .add(new BigInteger("98765432109876543210"));
+
+        Assertions.assertThat(jsonNodeAssembler.getResult()).isEqualTo(expectedObject);
+    }
+
+    @Test
+    public void testJsonNodeAssemblyFieldNameCache() throws Exception {
+        JsonFactory factory = JsonFactory.builder()
+                .disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)
+                .build();
+        FieldNameCache fieldNameCache = new FieldNameCache();
+
+        List<JsonNode> jsonNodes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            JsonAsyncTokenizer jsonTokenizer = new JsonAsyncTokenizer(factory);
+            jsonTokenizer.initialize(JsonNodeAssembler.createTokenConsumer(jsonNodes::add, fieldNameCache));
+            jsonTokenizer.consume(ByteBuffer.wrap(("{\"name\":\"record-" + i + "\",\"nested\":{\"name\":" + i + "}}")
+                    .getBytes(StandardCharsets.US_ASCII)));
+            jsonTokenizer.streamEnd();
+        }
+
+        Assertions.assertThat(jsonNodes).hasSize(2);
+        Assertions.assertThat(jsonNodes.get(0).get("name").asText()).isEqualTo("record-0");
+        Assertions.assertThat(jsonNodes.get(1).get("nested").get("name").asInt()).isEqualTo(1);
+
+        String name1 = jsonNodes.get(0).fieldNames().next();
+        String name2 = jsonNodes.get(1).fieldNames().next();
+        String name3 = jsonNodes.get(1).get("nested").fieldNames().next();
+        Assertions.assertThat(name1).isEqualTo("name");
+        Assertions.assertThat(name2).isSameAs(name1);
+        Assertions.assertThat(name3).isSameAs(name1);
+    }
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+public class JsonPathTokenFilterTest {
+
+    private static final String CONTENT = "{\"meta\":{\"count\":3,\"next\":\"/items?page=2\"}," +
+            "\"items\":[" +
+            "{\"id\":1,\"name\":\"one\",\"tags\":[\"a\",\"b\"]}," +
+            "{\"name\":\"two\",\"id\":2,\"nested\":{\"id\":-1}}," +
+            "{\"id\":{\"value\":3},\"tags\":[]}]," +
+            "\"id\":0}";
+
+    private static List<String> filter(ObjectMapper objectMapper, String content, String... paths) throws Exception {
+        List<String> results = new ArrayList<>();
+        JsonAsyncTokenizer jsonTokenizer = new JsonAsyncTokenizer(objectMapper.getFactory());
+        jsonTokenizer.initialize(new JsonPathTokenFilter(Arrays.asList(paths), new TokenBufferAssembler(
+                new JsonResultSink<TokenBuffer>() {
+
+                    @Override
+                    public void accept(TokenBuffer tokenBuffer) {
+                        try {
+                            JsonNode jsonNode = objectMapper.readTree(tokenBuffer.asParser());
+                            results.add(objectMapper.writeValueAsString(jsonNode));
+                        } catch (Exception ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                    }
+
+                })));
+        byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.length; i += 5) {
+            jsonTokenizer.consume(ByteBuffer.wrap(bytes, i, Math.min(5, bytes.length - i)));
+        }
+        jsonTokenizer.streamEnd();
+        return results;
+    }
+
+    @Test
+    public void testPathProjection() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        Assertions.assertThat(filter(objectMapper, CONTENT, "$.items[*].id"))
+                .containsExactly("1", "2", "{\"value\":3}");
+        Assertions.assertThat(filter(objectMapper, CONTENT, "$.meta.next"))
+                .containsExactly("\"/items?page=2\"");
+        Assertions.assertThat(filter(objectMapper, CONTENT, "$.items[1]['name']", "$.meta.count"))
+                .containsExactly("3", "\"two\"");
+        Assertions.assertThat(filter(objectMapper, CONTENT, "$.items[*].tags[*]"))
+                .containsExactly("\"a\"", "\"b\"");
+        Assertions.assertThat(filter(objectMapper, CONTENT, "$.items[0]"))
+                .containsExactly("{\"id\":1,\"name\":\"one\",\"tags\":[\"a\",\"b\"]}");
+        Assertions.assertThat(filter(objectMapper, CONTENT, "$.*.count", "$.id"))
+                .containsExactly("3", "0");
+        Assertions.assertThat(filter(objectMapper, CONTENT, "$.missing")).isEmpty();
+        Assertions.assertThat(filter(objectMapper, "[{\"id\":1},{\"id\":2}] {\"id\":3}", "$[*].id", "$.id"))
+                .containsExactly("1", "2", "3");
+    }
+
+    @Test
+    public void testInvalidPath() throws Exception {
+        JsonTokenConsumer tokenConsumer = (tokenId, jsonParser) -> { };
+        Assertions.assertThatThrownBy(() -> new JsonPathTokenFilter("items[*]", tokenConsumer))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> new JsonPathTokenFilter("$..id", tokenConsumer))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> new JsonPathTokenFilter("$.items[*", tokenConsumer))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
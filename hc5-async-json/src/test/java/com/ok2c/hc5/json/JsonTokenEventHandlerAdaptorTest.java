@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+public class JsonTokenEventHandlerAdaptorTest {
+
+    static class TextCollector implements JsonTextEventHandler {
+
+        final List<String> fields = new ArrayList<>();
+        final List<String> values = new ArrayList<>();
+        final List<Object> numbers = new ArrayList<>();
+        int matches;
+
+        @Override
+        public void value(char[] text, int offset, int length) {
+            if (length == 5 && text[offset] == 'a' && new String(text, offset, length).equals("alpha")) {
+                matches++;
+            }
+            values.add(new String(text, offset, length));
+        }
+
+        @Override
+        public void objectStart() {
+        }
+
+        @Override
+        public void objectEnd() {
+        }
+
+        @Override
+        public void arrayStart() {
+        }
+
+        @Override
+        public void arrayEnd() {
+        }
+
+        @Override
+        public void field(String name) {
+            fields.add(name);
+        }
+
+        @Override
+        public void embeddedObject(Object object) {
+        }
+
+        @Override
+        public void value(int value) {
+            numbers.add(value);
+        }
+
+        @Override
+        public void value(long value) {
+            numbers.add(value);
+        }
+
+        @Override
+        public void value(double value) {
+            numbers.add(value);
+        }
+
+        @Override
+        public void value(boolean value) {
+        }
+
+        @Override
+        public void valueNull() {
+        }
+
+        @Override
+        public void endOfStream() {
+        }
+
+    }
+
+    @Test
+    public void testTextEventHandler() throws Exception {
+        JsonAsyncTokenizer jsonTokenizer = new JsonAsyncTokenizer(new JsonFactory());
+        TextCollector textCollector = new TextCollector();
+        jsonTokenizer.initialize(new JsonTokenEventHandlerAdaptor(textCollector));
+
+        byte[] content = ("[{\"tag\":\"alpha\",\"id\":1},{\"tag\":\"beta\",\"id\":2}," +
+                "{\"tag\":\"alpha\",\"note\":\"caf\u00e9 \\\"quoted\\\"\"}]").getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < content.length; i += 7) {
+            jsonTokenizer.consume(ByteBuffer.wrap(content, i, Math.min(7, content.length - i)));
+        }
+        jsonTokenizer.streamEnd();
+
+        Assertions.assertThat(textCollector.matches).isEqualTo(2);
+        Assertions.assertThat(textCollector.values).containsExactly("alpha", "beta", "alpha", "caf\u00e9 \"quoted\"");
+        Assertions.assertThat(textCollector.fields).containsExactly("tag", "id", "tag", "id", "tag", "note");
+        Assertions.assertThat(textCollector.numbers).containsExactly(1, 2);
+    }
+
+}
@@ -15,6 +15,7 @@
  */
 package com.ok2c.hc5.json;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.ByteBuffer;
@@ -598,4 +599,70 @@ public void testConsumePartial() throws Exception {
         );
     }
 
+    private static List<String> tokenize(JsonAsyncTokenizer jsonTokenizer,
+                                         byte[] content,
+                                         int chunkSize,
+                                         boolean direct) throws Exception {
+        List<String> tokens = new ArrayList<>();
+        jsonTokenizer.initialize((tokenId, jsonParser) -> tokens.add(tokenId + ":" +
+                (tokenId != JsonTokenId.ID_NO_TOKEN ? jsonParser.getText() : "")));
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+        for (int off = 0; off < content.length; off += chunkSize) {
+            buffer.clear();
+            buffer.put(content, off, Math.min(chunkSize, content.length - off));
+            buffer.flip();
+            jsonTokenizer.consume(buffer);
+            Assertions.assertThat(buffer.hasRemaining()).isFalse();
+        }
+        jsonTokenizer.streamEnd();
+        return tokens;
+    }
+
+    @Test
+    public void testConsumeDirect() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        JsonAsyncTokenizer jsonTokenizer = new JsonAsyncTokenizer(factory);
+
+        for (String name : new String[]{"/sample1.json", "/sample2.json", "/sample3.json", "/sample6.json"}) {
+            URL resource = getClass().getResource(name);
+            Assertions.assertThat(resource).isNotNull();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try (InputStream inputStream = resource.openStream()) {
+                byte[] tmp = new byte[1024];
+                int len;
+                while ((len = inputStream.read(tmp)) != -1) {
+                    outputStream.write(tmp, 0, len);
+                }
+            }
+            byte[] content = outputStream.toByteArray();
+
+            List<String> expected = tokenize(jsonTokenizer, content, content.length, false);
+            for (int chunkSize : new int[]{1, 7, 64, 4096}) {
+                Assertions.assertThat(tokenize(jsonTokenizer, content, chunkSize, true)).isEqualTo(expected);
+                Assertions.assertThat(tokenize(jsonTokenizer, content, chunkSize, false)).isEqualTo(expected);
+            }
+        }
+
+        List<Integer> tokens = new ArrayList<>();
+        jsonTokenizer.initialize((tokenId, jsonParser) -> tokens.add(tokenId));
+
+        ByteBuffer b1 = ByteBuffer.allocateDirect(16);
+        b1.put(new byte[]{'{', '"', 'n', 'a', 'm'});
+        b1.flip();
+        ByteBuffer b2 = ByteBuffer.wrap(new byte[]{0, 0, 'e', '"', ' ', ' ', ':', ' ', 0}, 2, 6);
+        ByteBuffer b3 = ByteBuffer.wrap(new byte[]{'"', 'v', 'a', 'l', 'u', 'e', '"', ' ', ' ', '}'}).asReadOnlyBuffer();
+        jsonTokenizer.consume(b1);
+        jsonTokenizer.consume(b2);
+        jsonTokenizer.consume(b3);
+        jsonTokenizer.streamEnd();
+
+        Assertions.assertThat(tokens).containsExactly(
+                JsonTokenId.ID_START_OBJECT,
+                JsonTokenId.ID_FIELD_NAME,
+                JsonTokenId.ID_STRING,
+                JsonTokenId.ID_END_OBJECT,
+                JsonTokenId.ID_NO_TOKEN
+        );
+    }
+
 }
@@ -19,13 +19,21 @@
 import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ok2c.hc5.json.JsonMessageException;
+import com.ok2c.hc5.json.JsonResultSink;
 import com.ok2c.hc5.json.http.RequestData;
 
 import org.apache.hc.core5.http.message.BasicHeader;
@@ -112,4 +120,218 @@ public void testJsonArrayReading() throws Exception {
         Assertions.assertThat(jsonDataList.get(2)).usingRecursiveComparison().isEqualTo((expectedObject3));
     }
 
+    private static byte[] generateArray(int count) {
+        StringBuilder buf = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                buf.append(",");
+            }
+            buf.append("{\"id\":").append(i).append(",\"value\":").append(i * 2).append("}");
+        }
+        buf.append("]");
+        return buf.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testJsonArrayParallelReading() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper(new JsonFactory());
+        byte[] content = generateArray(5000);
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            for (boolean ordered : new boolean[] {true, false}) {
+                List<Map<String, Integer>> jsonDataList = new ArrayList<>();
+                List<String> events = new ArrayList<>();
+                JsonBulkArrayReader bulkArrayReader = new JsonBulkArrayReader(objectMapper, forkJoinPool, 8, ordered);
+                bulkArrayReader.initialize(new TypeReference<Map<String, Integer>>() {}, new JsonResultSink<Map<String, Integer>>() {
+
+                    @Override
+                    public void begin(int sizeHint) {
+                        events.add("begin");
+                    }
+
+                    @Override
+                    public void accept(Map<String, Integer> data) {
+                        jsonDataList.add(data);
+                    }
+
+                    @Override
+                    public void end() {
+                        events.add("end:" + jsonDataList.size());
+                    }
+
+                });
+                for (int i = 0; i < content.length; i += 1000) {
+                    bulkArrayReader.consume(ByteBuffer.wrap(content, i, Math.min(1000, content.length - i)));
+                }
+                bulkArrayReader.streamEnd();
+
+                Assertions.assertThat(events).containsExactly("begin", "end:5000");
+                Assertions.assertThat(jsonDataList).hasSize(5000);
+                if (ordered) {
+                    for (int i = 0; i < 5000; i++) {
+                        Assertions.assertThat(jsonDataList.get(i).get("id")).isEqualTo(i);
+                        Assertions.assertThat(jsonDataList.get(i).get("value")).isEqualTo(i * 2);
+                    }
+                } else {
+                    Assertions.assertThat(new HashSet<>(jsonDataList)).hasSize(5000);
+                }
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testJsonArrayParallelReadingRejected() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper(new JsonFactory());
+        byte[] content = generateArray(10);
+
+        for (boolean indexed : new boolean[] {false, true}) {
+            JsonBulkArrayReader bulkArrayReader = new JsonBulkArrayReader(objectMapper, command -> {
+                throw new RejectedExecutionException();
+            }, 4, true, indexed);
+            bulkArrayReader.initialize(new TypeReference<Map<String, Integer>>() {}, data -> { });
+            Assertions.assertThatThrownBy(() -> {
+                bulkArrayReader.consume(ByteBuffer.wrap(content));
+                bulkArrayReader.streamEnd();
+            }).isInstanceOf(JsonMessageException.class).hasCauseInstanceOf(RejectedExecutionException.class);
+        }
+    }
+
+    @Test
+    public void testJsonArrayIndexedReading() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        byte[] content = (" [ {\"id\":0,\"name\":\"a,b]\",\"data\":[1,[2,3]]},\n" +
+                "{\"id\":1,\"name\":\"quote\\\"}],{\\\\\",\"data\":{\"x\":[]}} , \"text\",42,null,\n" +
+                "{\"id\":2,\"name\":\"\\u005d\"} ] ").getBytes(StandardCharsets.US_ASCII);
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            for (int chunkSize : new int[] { 1024, 7, 1 }) {
+                for (boolean parallel : new boolean[] { false, true }) {
+                    List<Object> elements = new ArrayList<>();
+                    List<String> events = new ArrayList<>();
+                    JsonBulkArrayReader bulkArrayReader = parallel
+                            ? new JsonBulkArrayReader(objectMapper, forkJoinPool, 4, true, true)
+                            : new JsonBulkArrayReader(objectMapper, null, 0, true, true);
+                    bulkArrayReader.initialize(new TypeReference<Object>() {}, new JsonResultSink<Object>() {
+
+                        @Override
+                        public void begin(int sizeHint) {
+                            events.add("begin");
+                        }
+
+                        @Override
+                        public void accept(Object data) {
+                            elements.add(data);
+                        }
+
+                        @Override
+                        public void end() {
+                            events.add("end:" + elements.size());
+                        }
+
+                    });
+                    for (int i = 0; i < content.length; i += chunkSize) {
+                        int len = Math.min(chunkSize, content.length - i);
+                        ByteBuffer chunk = chunkSize == 7 ? ByteBuffer.allocateDirect(len) : ByteBuffer.allocate(len);
+                        chunk.put(content, i, len);
+                        chunk.flip();
+                        bulkArrayReader.consume(chunk);
+                    }
+                    bulkArrayReader.streamEnd();
+
+                    Assertions.assertThat(events).containsExactly("begin", "end:5");
+                    Assertions.assertThat(elements).hasSize(5);
+                    Assertions.assertThat(((Map<?, ?>) elements.get(0)).get("name")).isEqualTo("a,b]");
+                    Assertions.assertThat(((Map<?, ?>) elements.get(1)).get("name")).isEqualTo("quote\"}],{\\");
+                    Assertions.assertThat(elements.get(2)).isEqualTo("text");
+                    Assertions.assertThat(elements.get(3)).isEqualTo(42);
+                    Assertions.assertThat(((Map<?, ?>) elements.get(4)).get("name")).isEqualTo("]");
+                }
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testJsonArrayIndexedReadingMalformed() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        for (String content : new String[] { "{\"id\":1}", "[1,,2]", "[1,2", "[{\"id\":1]}]", "[1] 2" }) {
+            JsonBulkArrayReader bulkArrayReader = new JsonBulkArrayReader(objectMapper, null, 0, true, true);
+            bulkArrayReader.initialize(new TypeReference<Object>() {}, data -> { });
+            Assertions.assertThatThrownBy(() -> {
+                bulkArrayReader.consume(ByteBuffer.wrap(content.getBytes(StandardCharsets.US_ASCII)));
+                bulkArrayReader.streamEnd();
+            }).isInstanceOf(JsonMessageException.class);
+        }
+        // Elements holding more than one value get rejected like by the tokenizer
+        for (String content : new String[] { "[1 2]", "[{\"a\":1}{\"b\":2}]" }) {
+            List<Object> elements = new ArrayList<>();
+            JsonBulkArrayReader bulkArrayReader = new JsonBulkArrayReader(objectMapper, null, 0, true, true);
+            bulkArrayReader.initialize(new TypeReference<Object>() {}, elements::add);
+            Assertions.assertThatThrownBy(() -> {
+                bulkArrayReader.consume(ByteBuffer.wrap(content.getBytes(StandardCharsets.US_ASCII)));
+                bulkArrayReader.streamEnd();
+            }).isInstanceOf(JsonProcessingException.class);
+            Assertions.assertThat(elements).isEmpty();
+        }
+    }
+
+    @Test
+    public void testJsonNestedArrayReading() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        byte[] content = ("{\"meta\":{\"count\":3,\"tags\":[\"x\",\"y/z\"]}," +
+                "\"results\":{\"data\":[{\"id\":0,\"value\":0},{\"id\":1,\"value\":2,\"data\":[5]},{\"id\":2,\"value\":4}]," +
+                "\"done\":false}," +
+                "\"next\":\"cursor-2\",\"data\":[{\"id\":-1}]}").getBytes(StandardCharsets.US_ASCII);
+
+        List<Map<String, Object>> elements = new ArrayList<>();
+        Map<String, Object> fields = new HashMap<>();
+        JsonBulkArrayReader bulkArrayReader = new JsonBulkArrayReader(objectMapper);
+        bulkArrayReader.initialize(
+                "/results/data",
+                new TypeReference<Map<String, Object>>() {},
+                elements::add,
+                (pointer, value) -> fields.put(pointer, objectMapper.convertValue(value, Object.class)));
+        for (int i = 0; i < content.length; i += 3) {
+            bulkArrayReader.consume(ByteBuffer.wrap(content, i, Math.min(3, content.length - i)));
+        }
+        bulkArrayReader.streamEnd();
+
+        Assertions.assertThat(elements).hasSize(3);
+        Assertions.assertThat(elements.get(0).get("id")).isEqualTo(0);
+        Assertions.assertThat(elements.get(1).get("value")).isEqualTo(2);
+        Assertions.assertThat(elements.get(2).get("value")).isEqualTo(4);
+
+        Map<String, Object> expectedFields = new HashMap<>();
+        expectedFields.put("/meta/count", 3);
+        expectedFields.put("/meta/tags/0", "x");
+        expectedFields.put("/meta/tags/1", "y/z");
+        expectedFields.put("/results/done", false);
+        expectedFields.put("/next", "cursor-2");
+        expectedFields.put("/data/0/id", -1);
+        Assertions.assertThat(fields).isEqualTo(expectedFields);
+    }
+
+    @Test
+    public void testJsonPointerArrayIndexReading() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        byte[] content = "[[1,2],[3,4,5],[6]]".getBytes(StandardCharsets.US_ASCII);
+
+        List<Integer> elements = new ArrayList<>();
+        JsonBulkArrayReader bulkArrayReader = new JsonBulkArrayReader(objectMapper);
+        bulkArrayReader.initialize("/1", new TypeReference<Integer>() {}, elements::add, null);
+        bulkArrayReader.consume(ByteBuffer.wrap(content));
+        bulkArrayReader.streamEnd();
+
+        Assertions.assertThat(elements).containsExactly(3, 4, 5);
+    }
+
 }
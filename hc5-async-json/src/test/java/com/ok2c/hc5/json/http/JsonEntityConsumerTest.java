@@ -15,28 +15,53 @@
  */
 package com.ok2c.hc5.json.http;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ok2c.hc5.json.BatchingResultSink;
+import com.ok2c.hc5.json.FlowControlledResultSink;
+import com.ok2c.hc5.json.JsonMessageException;
 import com.ok2c.hc5.json.JsonResultSink;
+import com.ok2c.hc5.json.ResultCapacityChannel;
 
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.impl.BasicEntityDetails;
 import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -153,6 +178,92 @@ public void cancelled() {
         Assertions.assertThat(resultRef.get()).usingRecursiveComparison().isEqualTo(expectedObject);
     }
 
+    @Test
+    public void testJsonStreamingObjectEntityConsumer() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        URL resource = getClass().getResource("/sample1.json");
+        Assertions.assertThat(resource).isNotNull();
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<RequestData> future = new CompletableFuture<>();
+            JsonStreamingObjectEntityConsumer<RequestData> entityConsumer = new JsonStreamingObjectEntityConsumer<>(
+                    objectMapper, RequestData.class, 64, executorService);
+            AtomicInteger capacity = new AtomicInteger(0);
+            entityConsumer.streamStart(
+                    new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                    new CompletableFutureCallback<>(future));
+            entityConsumer.updateCapacity(capacity::addAndGet);
+            Assertions.assertThat(capacity.get()).isEqualTo(64);
+
+            try (InputStream inputStream = resource.openStream()) {
+                byte[] bytebuf = new byte[1024];
+                int len;
+                while (!future.isDone()) {
+                    int available = capacity.get();
+                    if (available <= 0) {
+                        Thread.sleep(1);
+                        continue;
+                    }
+                    Assertions.assertThat(available).isLessThanOrEqualTo(64);
+                    len = inputStream.read(bytebuf, 0, Math.min(available, bytebuf.length));
+                    if (len == -1) {
+                        entityConsumer.streamEnd(null);
+                        break;
+                    }
+                    capacity.addAndGet(-len);
+                    entityConsumer.consume(ByteBuffer.wrap(bytebuf, 0, len));
+                }
+            }
+
+            RequestData result = future.get(5, TimeUnit.SECONDS);
+            Assertions.assertThat(result).isNotNull();
+            Assertions.assertThat(result.getUrl()).isEqualTo(URI.create("http://httpbin.org/get"));
+            Assertions.assertThat(result.getOrigin()).isEqualTo("xxx.xxx.xxx.xxx");
+            Assertions.assertThat(entityConsumer.getContent()).isSameAs(result);
+            entityConsumer.releaseResources();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testJsonStreamingObjectEntityConsumerMalformed() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<RequestData> future = new CompletableFuture<>();
+            JsonStreamingObjectEntityConsumer<RequestData> entityConsumer = new JsonStreamingObjectEntityConsumer<>(
+                    objectMapper, RequestData.class, 64, executorService);
+            AtomicLong capacity = new AtomicLong(0);
+            entityConsumer.streamStart(
+                    new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                    new CompletableFutureCallback<>(future));
+            entityConsumer.updateCapacity(capacity::addAndGet);
+            Assertions.assertThat(capacity.get()).isEqualTo(64L);
+
+            byte[] content = "{\"url\": }".getBytes(StandardCharsets.US_ASCII);
+            capacity.addAndGet(-content.length);
+            entityConsumer.consume(ByteBuffer.wrap(content));
+
+            Assertions.assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(JsonParseException.class);
+            // The rest of the message body can be discarded without limit
+            long deadline = System.currentTimeMillis() + 5000;
+            while (capacity.get() < Integer.MAX_VALUE && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            Assertions.assertThat(capacity.get()).isGreaterThanOrEqualTo((long) Integer.MAX_VALUE);
+            entityConsumer.releaseResources();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     public void testJsonTypeReferenceEntityConsumer() throws Exception {
         JsonFactory factory = new JsonFactory();
@@ -389,4 +500,961 @@ public void cancelled() {
         Assertions.assertThat(jsonDataList.get(2)).containsExactly("9", "10", "11", "12");
     }
 
+    @Test
+    public void testJsonSequenceEntityConsumerBatching() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        URL resource = getClass().getResource("/sample5.json");
+        Assertions.assertThat(resource).isNotNull();
+
+        AtomicReference<Long> resultRef = new AtomicReference<>();
+        List<List<List<String>>> batches = new ArrayList<>();
+        AtomicInteger ended = new AtomicInteger(0);
+        JsonSequenceEntityConsumer<List<String>> entityConsumer = new JsonSequenceEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                new BatchingResultSink<>(10, 8, List::size, new JsonResultSink<List<List<String>>>() {
+
+                    @Override
+                    public void accept(List<List<String>> batch) {
+                        batches.add(batch);
+                    }
+
+                    @Override
+                    public void end() {
+                        ended.incrementAndGet();
+                    }
+
+                }));
+        try (InputStream inputStream = resource.openStream()) {
+            entityConsumer.streamStart(
+                    new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                    new FutureCallback<Long>() {
+
+                        @Override
+                        public void completed(Long result) {
+                            resultRef.set(result);
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                        }
+
+                        @Override
+                        public void cancelled() {
+                        }
+
+                    });
+            byte[] bytebuf = new byte[1024];
+            int len;
+            while ((len = inputStream.read(bytebuf)) != -1) {
+                entityConsumer.consume(ByteBuffer.wrap(bytebuf, 0, len));
+            }
+            entityConsumer.streamEnd(null);
+        }
+
+        Assertions.assertThat(resultRef.get()).isEqualTo((3L));
+        Assertions.assertThat(ended.get()).isEqualTo((1));
+
+        Assertions.assertThat(batches).hasSize(2);
+        Assertions.assertThat(batches.get(0)).hasSize(2);
+        Assertions.assertThat(batches.get(0).get(0)).containsExactly("1", "2", "3", "4");
+        Assertions.assertThat(batches.get(0).get(1)).containsExactly("5", "6", "7", "8");
+        Assertions.assertThat(batches.get(1)).hasSize(1);
+        Assertions.assertThat(batches.get(1).get(0)).containsExactly("9", "10", "11", "12");
+    }
+
+    @Test
+    public void testJsonPathEntityConsumer() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        AtomicReference<Long> resultRef = new AtomicReference<>();
+        List<RequestData> jsonDataList = new ArrayList<>();
+        JsonPathEntityConsumer<RequestData> entityConsumer = new JsonPathEntityConsumer<>(
+                objectMapper,
+                "$.results[*].data",
+                RequestData.class,
+                jsonDataList::add);
+
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                new FutureCallback<Long>() {
+
+                    @Override
+                    public void completed(Long result) {
+                        resultRef.set(result);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+
+                });
+        entityConsumer.consume(ByteBuffer.wrap(("{\"total\":2,\"results\":[" +
+                "{\"status\":200,\"data\":{\"url\":\"http://httpbin.org/get\",\"origin\":\"xxx.xxx.xxx.xxx\"}}," +
+                "{\"status\":200,\"data\":{\"url\":\"http://httpbin.org/post\",\"origin\":\"yyy.yyy.yyy.yyy\"}}]}")
+                .getBytes(StandardCharsets.US_ASCII)));
+        entityConsumer.streamEnd(null);
+
+        Assertions.assertThat(resultRef.get()).isEqualTo((2L));
+        Assertions.assertThat(jsonDataList).hasSize(2);
+        Assertions.assertThat(jsonDataList.get(0).getUrl()).isEqualTo(URI.create("http://httpbin.org/get"));
+        Assertions.assertThat(jsonDataList.get(1).getUrl()).isEqualTo(URI.create("http://httpbin.org/post"));
+        Assertions.assertThat(jsonDataList.get(1).getOrigin()).isEqualTo("yyy.yyy.yyy.yyy");
+    }
+
+    @Test
+    public void testJsonLinesEntityConsumer() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        AtomicReference<Long> resultRef = new AtomicReference<>();
+        List<List<String>> jsonDataList = new ArrayList<>();
+        AtomicInteger ended = new AtomicInteger(0);
+        JsonLinesEntityConsumer<List<String>> entityConsumer = new JsonLinesEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                new JsonResultSink<List<String>>() {
+
+                    @Override
+                    public void accept(List<String> data) {
+                        jsonDataList.add(data);
+                    }
+
+                    @Override
+                    public void end() {
+                        ended.incrementAndGet();
+                    }
+
+                });
+
+        byte[] content = ("[\"1\",\"2\"]\n[\"3\"]\r\n\n  [\"4\", \"5\"]  \n" +
+                "[\"a long line that gets split across several input buffers\"]\n[]").getBytes(StandardCharsets.US_ASCII);
+        for (int chunkSize : new int[] { 1024, 7, 1 }) {
+            jsonDataList.clear();
+            entityConsumer.streamStart(
+                    new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_NDJSON),
+                    new FutureCallback<Long>() {
+
+                        @Override
+                        public void completed(Long result) {
+                            resultRef.set(result);
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                        }
+
+                        @Override
+                        public void cancelled() {
+                        }
+
+                    });
+            for (int i = 0; i < content.length; i += chunkSize) {
+                int len = Math.min(chunkSize, content.length - i);
+                ByteBuffer chunk = chunkSize == 7 ? ByteBuffer.allocateDirect(len) : ByteBuffer.allocate(len);
+                chunk.put(content, i, len);
+                chunk.flip();
+                entityConsumer.consume(chunk);
+            }
+            entityConsumer.streamEnd(null);
+            entityConsumer.releaseResources();
+
+            Assertions.assertThat(resultRef.get()).isEqualTo(5L);
+            Assertions.assertThat(jsonDataList).hasSize(5);
+            Assertions.assertThat(jsonDataList.get(0)).containsExactly("1", "2");
+            Assertions.assertThat(jsonDataList.get(1)).containsExactly("3");
+            Assertions.assertThat(jsonDataList.get(2)).containsExactly("4", "5");
+            Assertions.assertThat(jsonDataList.get(3)).containsExactly("a long line that gets split across several input buffers");
+            Assertions.assertThat(jsonDataList.get(4)).isEmpty();
+        }
+        Assertions.assertThat(ended.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testJsonLinesEntityConsumerTrailingTokens() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        List<JsonNode> jsonDataList = new ArrayList<>();
+        JsonLinesEntityConsumer<JsonNode> entityConsumer = new JsonLinesEntityConsumer<>(
+                objectMapper,
+                JsonNode.class,
+                jsonDataList::add);
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_NDJSON),
+                new CompletableFutureCallback<>(future));
+        Assertions.assertThatThrownBy(() -> entityConsumer.consume(ByteBuffer.wrap(
+                "{\"a\":1}\n{\"a\":2} {\"b\":3}\n".getBytes(StandardCharsets.US_ASCII))))
+                .isInstanceOf(JsonMappingException.class);
+        Assertions.assertThat(jsonDataList).hasSize(1);
+    }
+
+    @Test
+    public void testJsonTextSequenceEntityConsumer() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        AtomicReference<Long> resultRef = new AtomicReference<>();
+        List<List<String>> jsonDataList = new ArrayList<>();
+        JsonTextSequenceEntityConsumer<List<String>> entityConsumer = new JsonTextSequenceEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                jsonDataList::add);
+
+        // Leading garbage, a truncated record, a malformed record and
+        // an empty record get skipped
+        byte[] content = ("garbage\u001E[\"1\",\"2\"]\n\u001E[\"3\",\u001E[\"4\",\n]\n\u001E\u001E[\n  \"5\"\n]\n" +
+                "\u001E[\"6\"]\n\u001E[\"7\"]").getBytes(StandardCharsets.US_ASCII);
+        for (int chunkSize : new int[] { 1024, 5, 1 }) {
+            jsonDataList.clear();
+            entityConsumer.streamStart(
+                    new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_JSON_SEQ),
+                    new FutureCallback<Long>() {
+
+                        @Override
+                        public void completed(Long result) {
+                            resultRef.set(result);
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                        }
+
+                        @Override
+                        public void cancelled() {
+                        }
+
+                    });
+            for (int i = 0; i < content.length; i += chunkSize) {
+                int len = Math.min(chunkSize, content.length - i);
+                entityConsumer.consume(ByteBuffer.wrap(content, i, len));
+            }
+            entityConsumer.streamEnd(null);
+            entityConsumer.releaseResources();
+
+            Assertions.assertThat(resultRef.get()).isEqualTo(3L);
+            Assertions.assertThat(jsonDataList).hasSize(3);
+            Assertions.assertThat(jsonDataList.get(0)).containsExactly("1", "2");
+            Assertions.assertThat(jsonDataList.get(1)).containsExactly("5");
+            Assertions.assertThat(jsonDataList.get(2)).containsExactly("6");
+            Assertions.assertThat(entityConsumer.getSkippedCount()).isEqualTo(4L);
+        }
+    }
+
+    @Test
+    public void testJsonTextSequenceEntityConsumerBindingError() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        List<List<String>> jsonDataList = new ArrayList<>();
+        JsonTextSequenceEntityConsumer<List<String>> entityConsumer = new JsonTextSequenceEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                jsonDataList::add);
+
+        entityConsumer.streamStart(new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_JSON_SEQ), null);
+        entityConsumer.consume(ByteBuffer.wrap(
+                "\u001E[\"1\"]\n\u001E{\"a\":\"b\"}\n".getBytes(StandardCharsets.US_ASCII)));
+        Assertions.assertThatThrownBy(() -> entityConsumer.streamEnd(null))
+                .isInstanceOf(JsonMappingException.class);
+        Assertions.assertThat(jsonDataList).hasSize(1);
+        Assertions.assertThat(entityConsumer.getSkippedCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testSequenceConsumerContentTypes() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        byte[] content = "\u001E\"a\"\n\u001E\"b\"\n".getBytes(StandardCharsets.US_ASCII);
+
+        List<String> jsonDataList = new ArrayList<>();
+        AsyncResponseConsumer<Long> responseConsumer = JsonResponseConsumers.create(
+                objectMapper, String.class, 1024, null, jsonDataList::add);
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        responseConsumer.consumeResponse(
+                new BasicHttpResponse(200),
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_JSON_SEQ),
+                null,
+                new CompletableFutureCallback<>(future));
+        responseConsumer.consume(ByteBuffer.wrap(content));
+        responseConsumer.streamEnd(null);
+        Assertions.assertThat(future.get()).isEqualTo(2L);
+        Assertions.assertThat(jsonDataList).containsExactly("a", "b");
+
+        jsonDataList.clear();
+        Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        responseConsumer = JsonResponseConsumers.create(
+                objectMapper, String.class, 1024, tasks::add, 4, null, jsonDataList::add);
+        CompletableFuture<Long> future2 = new CompletableFuture<>();
+        responseConsumer.consumeResponse(
+                new BasicHttpResponse(200),
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_JSON_SEQ),
+                null,
+                new CompletableFutureCallback<>(future2));
+        responseConsumer.consume(ByteBuffer.wrap(content));
+        responseConsumer.streamEnd(null);
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+        Assertions.assertThat(future2.get()).isEqualTo(2L);
+        Assertions.assertThat(jsonDataList).containsExactly("a", "b");
+
+        // Tokenizing consumers accept plain JSON content only
+        JsonObjectEntityConsumer<RequestData> entityConsumer = new JsonObjectEntityConsumer<>(objectMapper, RequestData.class);
+        Assertions.assertThatThrownBy(() -> entityConsumer.streamStart(
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_NDJSON), null))
+                .isInstanceOf(JsonMessageException.class);
+        Assertions.assertThatThrownBy(() -> entityConsumer.streamStart(
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_JSON_SEQ), null))
+                .isInstanceOf(JsonMessageException.class);
+    }
+
+    @Test
+    public void testJsonLinesEntityConsumerExecutor() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        List<Runnable> tasks = new ArrayList<>();
+        List<List<String>> jsonDataList = new ArrayList<>();
+        JsonLinesEntityConsumer<List<String>> entityConsumer = new JsonLinesEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                64,
+                tasks::add,
+                2,
+                jsonDataList::add);
+
+        AtomicReference<Long> resultRef = new AtomicReference<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_NDJSON),
+                new FutureCallback<Long>() {
+
+                    @Override
+                    public void completed(Long result) {
+                        resultRef.set(result);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+
+                });
+
+        AtomicInteger capacity = new AtomicInteger(0);
+        entityConsumer.updateCapacity(capacity::addAndGet);
+        Assertions.assertThat(capacity.get()).isEqualTo(64);
+
+        byte[] content = ("[\"1\",\"2\"]\n[\"3\"]\n[\"4\"]\n[\"5\",\"6\"]\n[\"7\"]").getBytes(StandardCharsets.US_ASCII);
+        capacity.addAndGet(-content.length);
+        entityConsumer.consume(ByteBuffer.wrap(content));
+
+        // Capacity is withheld while more than max pending lines are being decoded
+        Assertions.assertThat(tasks).hasSize(4);
+        Assertions.assertThat(capacity.get()).isEqualTo(64 - content.length);
+
+        // Complete decoding in reverse order
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            tasks.get(i).run();
+            if (i > 0) {
+                Assertions.assertThat(jsonDataList).isEmpty();
+            }
+        }
+        tasks.clear();
+        Assertions.assertThat(jsonDataList).hasSize(4);
+        Assertions.assertThat(capacity.get()).isEqualTo(64);
+
+        entityConsumer.streamEnd(null);
+        Assertions.assertThat(resultRef.get()).isNull();
+        Assertions.assertThat(tasks).hasSize(1);
+        tasks.get(0).run();
+
+        Assertions.assertThat(resultRef.get()).isEqualTo(5L);
+        Assertions.assertThat(jsonDataList).hasSize(5);
+        Assertions.assertThat(jsonDataList.get(0)).containsExactly("1", "2");
+        Assertions.assertThat(jsonDataList.get(1)).containsExactly("3");
+        Assertions.assertThat(jsonDataList.get(2)).containsExactly("4");
+        Assertions.assertThat(jsonDataList.get(3)).containsExactly("5", "6");
+        Assertions.assertThat(jsonDataList.get(4)).containsExactly("7");
+    }
+
+    @Test
+    public void testJsonLinesEntityConsumerExecutorFailure() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        List<Runnable> tasks = new ArrayList<>();
+        List<List<String>> jsonDataList = new ArrayList<>();
+        JsonLinesEntityConsumer<List<String>> entityConsumer = new JsonLinesEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                64,
+                tasks::add,
+                2,
+                jsonDataList::add);
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_NDJSON),
+                new CompletableFutureCallback<>(future));
+        AtomicInteger capacity = new AtomicInteger(0);
+        entityConsumer.updateCapacity(capacity::addAndGet);
+
+        byte[] content = ("[\"1\"]\n[\"2\"\n[\"3\"]\n").getBytes(StandardCharsets.US_ASCII);
+        capacity.addAndGet(-content.length);
+        entityConsumer.consume(ByteBuffer.wrap(content));
+        Assertions.assertThat(tasks).hasSize(3);
+        Assertions.assertThat(capacity.get()).isEqualTo(64 - content.length);
+
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        tasks.clear();
+        Assertions.assertThatThrownBy(future::get).hasCauseInstanceOf(JsonMappingException.class);
+        Assertions.assertThat(jsonDataList).hasSize(1);
+        // Input capacity is released once decoding has failed
+        Assertions.assertThat(capacity.get()).isEqualTo(64);
+        entityConsumer.consume(ByteBuffer.wrap("[\"4\"]\n".getBytes(StandardCharsets.US_ASCII)));
+        Assertions.assertThat(tasks).isEmpty();
+
+        JsonLinesEntityConsumer<List<String>> entityConsumer2 = new JsonLinesEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                64,
+                command -> {
+                    throw new RejectedExecutionException();
+                },
+                2,
+                jsonDataList::add);
+        entityConsumer2.streamStart(new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_NDJSON), null);
+        AtomicInteger capacity2 = new AtomicInteger(0);
+        entityConsumer2.updateCapacity(capacity2::addAndGet);
+        capacity2.addAndGet(-content.length);
+        Assertions.assertThatThrownBy(() -> entityConsumer2.consume(ByteBuffer.wrap(content)))
+                .isInstanceOf(JsonMessageException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        capacity2.addAndGet(-6);
+        entityConsumer2.consume(ByteBuffer.wrap("[\"4\"]\n".getBytes(StandardCharsets.US_ASCII)));
+        Assertions.assertThat(capacity2.get()).isEqualTo(64);
+
+        tasks.clear();
+        jsonDataList.clear();
+        AtomicInteger ended = new AtomicInteger(0);
+        JsonLinesEntityConsumer<List<String>> entityConsumer3 = new JsonLinesEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                64,
+                tasks::add,
+                4,
+                new JsonResultSink<List<String>>() {
+
+                    @Override
+                    public void accept(List<String> result) {
+                        if ("2".equals(result.get(0))) {
+                            throw new IllegalStateException("Sink failure");
+                        }
+                        jsonDataList.add(result);
+                    }
+
+                    @Override
+                    public void end() {
+                        ended.incrementAndGet();
+                    }
+
+                });
+        CompletableFuture<Long> future3 = new CompletableFuture<>();
+        entityConsumer3.streamStart(
+                new BasicEntityDetails(-1, JsonContentTypes.APPLICATION_NDJSON),
+                new CompletableFutureCallback<>(future3));
+        entityConsumer3.consume(ByteBuffer.wrap("[\"1\"]\n[\"2\"]\n[\"3\"]\n".getBytes(StandardCharsets.US_ASCII)));
+        entityConsumer3.streamEnd(null);
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        Assertions.assertThatThrownBy(future3::get).hasCauseInstanceOf(IllegalStateException.class);
+        // No records get delivered to the sink once it has failed
+        Assertions.assertThat(jsonDataList).hasSize(1);
+        Assertions.assertThat(ended.get()).isEqualTo(0);
+
+        Assertions.assertThatThrownBy(() -> new JsonLinesEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                Integer.MAX_VALUE,
+                tasks::add,
+                2,
+                jsonDataList::add)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static EntityDetails encodedEntityDetails(ContentType contentType, String contentEncoding) {
+        return new EntityDetails() {
+
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public String getContentType() {
+                return contentType.toString();
+            }
+
+            @Override
+            public String getContentEncoding() {
+                return contentEncoding;
+            }
+
+            @Override
+            public boolean isChunked() {
+                return true;
+            }
+
+            @Override
+            public Set<String> getTrailerNames() {
+                return null;
+            }
+
+        };
+    }
+
+    @Test
+    public void testDecompressingEntityConsumer() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            buf.append("[\"").append(i).append("\",\"value\"]\n");
+        }
+        byte[] content = buf.toString().getBytes(StandardCharsets.US_ASCII);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(gzip)) {
+            outputStream.write(content);
+        }
+        ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new DeflaterOutputStream(zlib)) {
+            outputStream.write(content);
+        }
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new DeflaterOutputStream(raw, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+            outputStream.write(content);
+        }
+
+        String[] encodings = new String[] { "gzip", "deflate", "deflate", null };
+        byte[][] encoded = new byte[][] { gzip.toByteArray(), zlib.toByteArray(), raw.toByteArray(), content };
+        for (int n = 0; n < encodings.length; n++) {
+            List<List<String>> jsonDataList = new ArrayList<>();
+            AtomicReference<Long> resultRef = new AtomicReference<>();
+            DecompressingEntityConsumer<Long> entityConsumer = new DecompressingEntityConsumer<>(
+                    new JsonLinesEntityConsumer<>(objectMapper, new TypeReference<List<String>>() { }, jsonDataList::add), 64);
+            entityConsumer.streamStart(
+                    encodedEntityDetails(JsonContentTypes.APPLICATION_NDJSON, encodings[n]),
+                    new FutureCallback<Long>() {
+
+                        @Override
+                        public void completed(Long result) {
+                            resultRef.set(result);
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                        }
+
+                        @Override
+                        public void cancelled() {
+                        }
+
+                    });
+            byte[] data = encoded[n];
+            for (int i = 0; i < data.length; i += 7) {
+                entityConsumer.consume(ByteBuffer.wrap(data, i, Math.min(7, data.length - i)));
+            }
+            entityConsumer.streamEnd(null);
+            entityConsumer.releaseResources();
+
+            Assertions.assertThat(resultRef.get()).isEqualTo(500L);
+            Assertions.assertThat(jsonDataList).hasSize(500);
+            Assertions.assertThat(jsonDataList.get(499)).containsExactly("499", "value");
+        }
+
+        byte[] corrupted = gzip.toByteArray();
+        corrupted[corrupted.length - 5]++;
+        for (byte[] data : new byte[][] { Arrays.copyOf(gzip.toByteArray(), gzip.size() - 4), corrupted }) {
+            DecompressingEntityConsumer<Long> entityConsumer = new DecompressingEntityConsumer<>(
+                    new JsonLinesEntityConsumer<>(objectMapper, new TypeReference<List<String>>() { }, result -> { }));
+            entityConsumer.streamStart(encodedEntityDetails(JsonContentTypes.APPLICATION_NDJSON, "gzip"), null);
+            Assertions.assertThatThrownBy(() -> {
+                entityConsumer.consume(ByteBuffer.wrap(data));
+                entityConsumer.streamEnd(null);
+            }).isInstanceOf(JsonMessageException.class);
+        }
+    }
+
+    @Test
+    public void testDecompressingEntityConsumerFlowControl() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(gzip)) {
+            byte[] line = "[\"1\"]\n".getBytes(StandardCharsets.US_ASCII);
+            for (int i = 0; i < 200000; i++) {
+                outputStream.write(line);
+            }
+        }
+        byte[] data = gzip.toByteArray();
+
+        Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        AtomicLong count = new AtomicLong(0);
+        DecompressingEntityConsumer<Long> entityConsumer = new DecompressingEntityConsumer<>(
+                new JsonLinesEntityConsumer<>(
+                        objectMapper,
+                        new TypeReference<List<String>>() { },
+                        256,
+                        tasks::add,
+                        4,
+                        result -> count.incrementAndGet()),
+                64,
+                128);
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        entityConsumer.streamStart(
+                encodedEntityDetails(JsonContentTypes.APPLICATION_NDJSON, "gzip"),
+                new CompletableFutureCallback<>(future));
+        AtomicInteger capacity = new AtomicInteger(0);
+        entityConsumer.updateCapacity(capacity::addAndGet);
+        Assertions.assertThat(capacity.get()).isEqualTo(128);
+
+        // Records are not processed: input stops long before the end of compressed content
+        int off = 0;
+        while (capacity.get() > 0) {
+            int n = Math.min(Math.min(capacity.get(), 32), data.length - off);
+            capacity.addAndGet(-n);
+            entityConsumer.consume(ByteBuffer.wrap(data, off, n));
+            off += n;
+            Assertions.assertThat(capacity.get()).isLessThanOrEqualTo(128);
+        }
+        Assertions.assertThat(off).isLessThan(data.length / 2);
+        Assertions.assertThat(tasks.size()).isLessThanOrEqualTo(128);
+
+        boolean ended = false;
+        while (!ended || !tasks.isEmpty()) {
+            if (capacity.get() > 0 && off < data.length) {
+                int n = Math.min(Math.min(capacity.get(), 32), data.length - off);
+                capacity.addAndGet(-n);
+                entityConsumer.consume(ByteBuffer.wrap(data, off, n));
+                off += n;
+            } else if (!tasks.isEmpty()) {
+                tasks.poll().run();
+            } else if (off == data.length && !ended) {
+                entityConsumer.streamEnd(null);
+                ended = true;
+            } else {
+                break;
+            }
+            Assertions.assertThat(capacity.get()).isLessThanOrEqualTo(128);
+            Assertions.assertThat(tasks.size()).isLessThanOrEqualTo(128);
+        }
+        Assertions.assertThat(future.get()).isEqualTo(200000L);
+        Assertions.assertThat(count.get()).isEqualTo(200000L);
+        entityConsumer.releaseResources();
+    }
+
+    @Test
+    public void testJsonSequenceEntityConsumerFlowControl() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        AtomicReference<ResultCapacityChannel> resultCapacityChannelRef = new AtomicReference<>();
+        List<List<String>> jsonDataList = new ArrayList<>();
+        JsonSequenceEntityConsumer<List<String>> entityConsumer = new JsonSequenceEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                16,
+                new FlowControlledResultSink<List<String>>() {
+
+                    @Override
+                    public void updateCapacity(ResultCapacityChannel capacityChannel) {
+                        resultCapacityChannelRef.set(capacityChannel);
+                    }
+
+                    @Override
+                    public void accept(List<String> data) {
+                        jsonDataList.add(data);
+                    }
+
+                });
+
+        AtomicReference<Long> resultRef = new AtomicReference<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                new FutureCallback<Long>() {
+
+                    @Override
+                    public void completed(Long result) {
+                        resultRef.set(result);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+
+                });
+
+        ResultCapacityChannel resultCapacityChannel = resultCapacityChannelRef.get();
+        Assertions.assertThat(resultCapacityChannel).isNotNull();
+        resultCapacityChannel.update(1);
+
+        AtomicInteger capacity = new AtomicInteger(0);
+        entityConsumer.updateCapacity(capacity::addAndGet);
+        Assertions.assertThat(capacity.get()).isEqualTo(16);
+
+        ByteBuffer data = ByteBuffer.wrap((
+                "[ \"1\", \"2\", \"3\", \"4\" ]\n" +
+                "[ \"5\", \"6\", \"7\", \"8\" ]\n" +
+                "[ \"9\", \"10\", \"11\", \"12\" ]").getBytes(StandardCharsets.US_ASCII));
+        while (data.hasRemaining() && capacity.get() > 0) {
+            ByteBuffer chunk = data.duplicate();
+            chunk.limit(chunk.position() + Math.min(capacity.get(), data.remaining()));
+            data.position(chunk.limit());
+            capacity.addAndGet(-chunk.remaining());
+            entityConsumer.consume(chunk);
+        }
+
+        Assertions.assertThat(jsonDataList).hasSize(1);
+        Assertions.assertThat(capacity.get()).isEqualTo(0);
+        Assertions.assertThat(data.hasRemaining()).isTrue();
+
+        resultCapacityChannel.update(10);
+        Assertions.assertThat(capacity.get()).isEqualTo(16);
+
+        while (data.hasRemaining() && capacity.get() > 0) {
+            ByteBuffer chunk = data.duplicate();
+            chunk.limit(chunk.position() + Math.min(capacity.get(), data.remaining()));
+            data.position(chunk.limit());
+            capacity.addAndGet(-chunk.remaining());
+            entityConsumer.consume(chunk);
+        }
+        Assertions.assertThat(data.hasRemaining()).isFalse();
+        entityConsumer.streamEnd(null);
+
+        Assertions.assertThat(resultRef.get()).isEqualTo(3L);
+        Assertions.assertThat(jsonDataList).hasSize(3);
+        Assertions.assertThat(jsonDataList.get(0)).containsExactly("1", "2", "3", "4");
+        Assertions.assertThat(jsonDataList.get(1)).containsExactly("5", "6", "7", "8");
+        Assertions.assertThat(jsonDataList.get(2)).containsExactly("9", "10", "11", "12");
+    }
+
+    @Test
+    public void testJsonSequenceEntityConsumerExecutor() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        List<List<String>> jsonDataList = new ArrayList<>();
+        JsonSequenceEntityConsumer<List<String>> entityConsumer = new JsonSequenceEntityConsumer<>(
+                objectMapper,
+                new TypeReference<List<String>>() { },
+                16,
+                tasks::add,
+                1,
+                jsonDataList::add);
+
+        AtomicReference<Long> resultRef = new AtomicReference<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                new FutureCallback<Long>() {
+
+                    @Override
+                    public void completed(Long result) {
+                        resultRef.set(result);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+
+                });
+
+        AtomicInteger capacity = new AtomicInteger(0);
+        entityConsumer.updateCapacity(capacity::addAndGet);
+        Assertions.assertThat(capacity.get()).isEqualTo(16);
+
+        ByteBuffer data = ByteBuffer.wrap((
+                "[ \"1\", \"2\", \"3\", \"4\" ]\n" +
+                "[ \"5\", \"6\", \"7\", \"8\" ]\n" +
+                "[ \"9\", \"10\", \"11\", \"12\" ]").getBytes(StandardCharsets.US_ASCII));
+        while (data.hasRemaining() && capacity.get() > 0) {
+            ByteBuffer chunk = data.duplicate();
+            chunk.limit(chunk.position() + Math.min(capacity.get(), data.remaining()));
+            data.position(chunk.limit());
+            capacity.addAndGet(-chunk.remaining());
+            entityConsumer.consume(chunk);
+        }
+
+        Assertions.assertThat(jsonDataList).isEmpty();
+        Assertions.assertThat(capacity.get()).isEqualTo(0);
+        Assertions.assertThat(data.hasRemaining()).isTrue();
+
+        while (data.hasRemaining() || !tasks.isEmpty()) {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+            Assertions.assertThat(capacity.get()).isEqualTo(16);
+            while (data.hasRemaining() && capacity.get() > 0) {
+                ByteBuffer chunk = data.duplicate();
+                chunk.limit(chunk.position() + Math.min(capacity.get(), data.remaining()));
+                data.position(chunk.limit());
+                capacity.addAndGet(-chunk.remaining());
+                entityConsumer.consume(chunk);
+            }
+        }
+        entityConsumer.streamEnd(null);
+        Assertions.assertThat(resultRef.get()).isNull();
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+
+        Assertions.assertThat(resultRef.get()).isEqualTo(3L);
+        Assertions.assertThat(jsonDataList).hasSize(3);
+        Assertions.assertThat(jsonDataList.get(0)).containsExactly("1", "2", "3", "4");
+        Assertions.assertThat(jsonDataList.get(1)).containsExactly("5", "6", "7", "8");
+        Assertions.assertThat(jsonDataList.get(2)).containsExactly("9", "10", "11", "12");
+    }
+
+    @Test
+    public void testJsonSequenceEntityConsumerExecutorFailure() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        List<String> jsonDataList = new ArrayList<>();
+        JsonSequenceEntityConsumer<String> entityConsumer = new JsonSequenceEntityConsumer<>(
+                objectMapper,
+                String.class,
+                16,
+                tasks::add,
+                1,
+                value -> {
+                    if (value.equals("2")) {
+                        throw new IllegalStateException("Oppsie");
+                    }
+                    jsonDataList.add(value);
+                });
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                new CompletableFutureCallback<>(future));
+        AtomicInteger capacity = new AtomicInteger(0);
+        entityConsumer.updateCapacity(capacity::addAndGet);
+
+        byte[] content = "\"1\" \"2\" \"3\" \"4\" ".getBytes(StandardCharsets.US_ASCII);
+        capacity.addAndGet(-content.length);
+        entityConsumer.consume(ByteBuffer.wrap(content));
+        Assertions.assertThat(capacity.get()).isEqualTo(0);
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+        Assertions.assertThat(future.isCompletedExceptionally()).isTrue();
+        Assertions.assertThatThrownBy(future::get).hasCauseInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(jsonDataList).containsExactly("1");
+        // The rest of the message body gets discarded
+        Assertions.assertThat(capacity.get()).isEqualTo(16);
+        entityConsumer.consume(ByteBuffer.wrap("\"5\" \"6\"".getBytes(StandardCharsets.US_ASCII)));
+        entityConsumer.streamEnd(null);
+        Assertions.assertThat(tasks).isEmpty();
+        Assertions.assertThat(jsonDataList).containsExactly("1");
+    }
+
+    @Test
+    public void testJsonSequenceEntityConsumerExecutorRejected() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        JsonSequenceEntityConsumer<String> entityConsumer = new JsonSequenceEntityConsumer<>(
+                objectMapper,
+                String.class,
+                16,
+                command -> {
+                    throw new RejectedExecutionException();
+                },
+                1,
+                value -> { });
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                new CompletableFutureCallback<>(future));
+        AtomicInteger capacity = new AtomicInteger(0);
+        entityConsumer.updateCapacity(capacity::addAndGet);
+
+        byte[] content = "\"1\" \"2\" ".getBytes(StandardCharsets.US_ASCII);
+        capacity.addAndGet(-content.length);
+        entityConsumer.consume(ByteBuffer.wrap(content));
+
+        Assertions.assertThatThrownBy(future::get).hasCauseInstanceOf(RejectedExecutionException.class);
+        Assertions.assertThat(capacity.get()).isEqualTo(16);
+        Assertions.assertThatThrownBy(() -> new JsonSequenceEntityConsumer<>(
+                objectMapper, String.class, Integer.MAX_VALUE, command -> { }, 1, value -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testJsonObjectEntityConsumerExecutor() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        JsonObjectEntityConsumer<RequestData> entityConsumer = new JsonObjectEntityConsumer<>(
+                objectMapper, RequestData.class, tasks::add);
+        CompletableFuture<RequestData> future = new CompletableFuture<>();
+        entityConsumer.streamStart(
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                new CompletableFutureCallback<>(future));
+        entityConsumer.consume(ByteBuffer.wrap("{\"origin\": \"xxx.xxx.xxx.xxx\"}".getBytes(StandardCharsets.US_ASCII)));
+        entityConsumer.streamEnd(null);
+        Assertions.assertThat(future.isDone()).isFalse();
+        Assertions.assertThat(tasks).hasSize(1);
+        tasks.poll().run();
+        Assertions.assertThat(future.get().getOrigin()).isEqualTo("xxx.xxx.xxx.xxx");
+
+        JsonObjectEntityConsumer<RequestData> entityConsumer2 = new JsonObjectEntityConsumer<>(
+                objectMapper, RequestData.class, command -> {
+                    throw new RejectedExecutionException();
+                });
+        CompletableFuture<RequestData> future2 = new CompletableFuture<>();
+        entityConsumer2.streamStart(
+                new BasicEntityDetails(-1, ContentType.APPLICATION_JSON),
+                new CompletableFutureCallback<>(future2));
+        entityConsumer2.consume(ByteBuffer.wrap("{}".getBytes(StandardCharsets.US_ASCII)));
+        entityConsumer2.streamEnd(null);
+        Assertions.assertThatThrownBy(future2::get).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
 }
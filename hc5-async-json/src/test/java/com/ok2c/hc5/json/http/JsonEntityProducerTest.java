@@ -15,13 +15,25 @@
  */
 package com.ok2c.hc5.json.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.NameValuePair;
@@ -32,6 +44,7 @@
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
@@ -100,6 +113,162 @@ public void testJsonObjectEntityProducer() throws Exception {
         }
     }
 
+    @Test
+    public void testJsonObjectEntityProducerPooled() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        SizeClassByteBufferPool bufferPool = new SizeClassByteBufferPool(1024, 65536, 1024 * 1024);
+
+        JsonObjectEntityProducer<List<NameValuePair>> producer = new JsonObjectEntityProducer<>(
+                Arrays.asList(
+                        new BasicNameValuePair("param1", "value"),
+                        new BasicNameValuePair("param2", "blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah"))
+                , objectMapper, bufferPool);
+
+        int[][] params = new int[][]{ {1024, -1}, {16, 16}, {32, 32} };
+
+        for (int i = 0; i < params.length; i++) {
+            WritableByteChannelMock byteChannel = new WritableByteChannelMock(params[i][0], params[i][1]);
+            MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+            while (dataChannel.isOpen()) {
+                producer.produce(dataChannel);
+                byteChannel.flush();
+            }
+            Assertions.assertThat(byteChannel.dump(StandardCharsets.US_ASCII)).isEqualTo("[" +
+                            "{\"name\":\"param1\",\"value\":\"value\"}," +
+                            "{\"name\":\"param2\",\"value\":\"blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah\"}" +
+                            "]");
+            Assertions.assertThat(bufferPool.getRetained()).isEqualTo(0);
+            producer.releaseResources();
+            Assertions.assertThat(bufferPool.getRetained()).isEqualTo(4096);
+        }
+    }
+
+    @Test
+    public void testJsonObjectEntityProducerDirect() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        List<NameValuePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pairs.add(new BasicNameValuePair("param" + i, "blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah"));
+        }
+        String expected = objectMapper.writeValueAsString(pairs);
+
+        SizeClassByteBufferPool bufferPool = new SizeClassByteBufferPool(1024, 65536, 1024 * 1024, true);
+        JsonObjectEntityProducer<List<NameValuePair>> producer = new JsonObjectEntityProducer<>(
+                pairs, objectMapper, bufferPool);
+
+        int[][] params = new int[][]{ {1024, -1}, {16, 16}, {32, 32} };
+
+        for (int i = 0; i < params.length; i++) {
+            WritableByteChannelMock byteChannel = new WritableByteChannelMock(params[i][0], params[i][1]);
+            MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+            while (dataChannel.isOpen()) {
+                producer.produce(dataChannel);
+                byteChannel.flush();
+            }
+            Assertions.assertThat(byteChannel.dump(StandardCharsets.US_ASCII)).isEqualTo(expected);
+            producer.releaseResources();
+        }
+        Assertions.assertThat(bufferPool.getRetained()).isGreaterThan(0L);
+    }
+
+    public static class CountingBean {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        public String getName() {
+            count.incrementAndGet();
+            return "blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah";
+        }
+
+    }
+
+    @Test
+    public void testJsonObjectEntityProducerPreSerialized() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        CountingBean bean = new CountingBean();
+        JsonObjectEntityProducer<CountingBean> producer = new JsonObjectEntityProducer<>(bean, objectMapper, true);
+
+        String expected = "{\"name\":\"blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah\"}";
+        Assertions.assertThat(producer.getContentLength()).isEqualTo(expected.length());
+
+        int[][] params = new int[][]{ {1024, -1}, {16, 16}, {32, 32} };
+
+        for (int i = 0; i < params.length; i++) {
+            WritableByteChannelMock byteChannel = new WritableByteChannelMock(params[i][0], params[i][1]);
+            MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+            while (dataChannel.isOpen()) {
+                producer.produce(dataChannel);
+                byteChannel.flush();
+            }
+            Assertions.assertThat(byteChannel.dump(StandardCharsets.US_ASCII)).isEqualTo(expected);
+            producer.releaseResources();
+        }
+        Assertions.assertThat(bean.count.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testJsonObjectEntityProducerStreaming() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        List<NameValuePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pairs.add(new BasicNameValuePair("param" + i, "blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah"));
+        }
+        String expected = objectMapper.writeValueAsString(pairs);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            JsonObjectEntityProducer<List<NameValuePair>> producer = new JsonObjectEntityProducer<>(
+                    pairs, objectMapper, 256, executorService);
+
+            int[][] params = new int[][]{ {1024, -1}, {16, 16}, {32, 32} };
+
+            for (int i = 0; i < params.length; i++) {
+                WritableByteChannelMock byteChannel = new WritableByteChannelMock(params[i][0], params[i][1]);
+                MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+                while (dataChannel.isOpen()) {
+                    Assertions.assertThat(producer.available()).isLessThanOrEqualTo(256);
+                    producer.produce(dataChannel);
+                    byteChannel.flush();
+                }
+                Assertions.assertThat(byteChannel.dump(StandardCharsets.US_ASCII)).isEqualTo(expected);
+                producer.releaseResources();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testJsonObjectEntityProducerStreamingFailure() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            JsonObjectEntityProducer<Object> producer = new JsonObjectEntityProducer<>(
+                    new Object(), objectMapper, 256, executorService);
+
+            WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, -1);
+            MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+            Assertions.assertThatThrownBy(() -> {
+                while (dataChannel.isOpen()) {
+                    producer.produce(dataChannel);
+                }
+            }).isInstanceOf(IOException.class);
+            producer.releaseResources();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     public void testJsonNodeEntityProducer() throws Exception {
         JsonFactory factory = new JsonFactory();
@@ -174,4 +343,386 @@ public void testJsonObjectSequenceEntityProducer() throws Exception {
         }
     }
 
+    @Test
+    public void testJsonObjectSequenceEntityProducerFormats() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        String element1 = "{\"name\":\"param1\",\"value\":\"value\"}";
+        String element2 = "{\"name\":\"param2\",\"value\":\"blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah\"}";
+
+        JsonSequenceFormat[] formats = new JsonSequenceFormat[] {
+                JsonSequenceFormat.NEWLINE_DELIMITED, JsonSequenceFormat.ARRAY };
+        String[] expected = new String[] {
+                element1 + "\n" + element2 + "\n", "[" + element1 + "," + element2 + "]" };
+
+        for (int n = 0; n < formats.length; n++) {
+            AtomicInteger count = new AtomicInteger(0);
+
+            JsonSequenceEntityProducer<NameValuePair> producer = new JsonSequenceEntityProducer<>(
+                    objectMapper,
+                    formats[n],
+                    channel -> {
+                        switch (count.incrementAndGet()) {
+                            case 1:
+                                channel.write(
+                                        new BasicNameValuePair("param1", "value"));
+                                break;
+                            case 2:
+                                channel.write(
+                                        new BasicNameValuePair("param2", "blah-blah-blah-blah-blah-blah-blah-blah-blah-blah-blah"));
+                                break;
+                            default:
+                                channel.endStream();
+                        }
+
+                    });
+
+            int[][] params = new int[][]{ {1024, -1}, {16, 16}, {32, 32} };
+
+            for (int i = 0; i < params.length; i++) {
+                WritableByteChannelMock byteChannel = new WritableByteChannelMock(params[i][0], params[i][1]);
+                MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+                while (dataChannel.isOpen()) {
+                    producer.produce(dataChannel);
+                    byteChannel.flush();
+                }
+                Assertions.assertThat(byteChannel.dump(StandardCharsets.US_ASCII)).isEqualTo(expected[n]);
+                producer.releaseResources();
+                count.set(0);
+            }
+        }
+    }
+
+    @Test
+    public void testCompressingEntityProducer() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            expected.append("{\"name\":\"param").append(i).append("\",\"value\":\"value\"}\n");
+        }
+
+        for (boolean syncFlush : new boolean[] { false, true }) {
+            for (ContentCoding contentCoding : ContentCoding.values()) {
+                AtomicInteger count = new AtomicInteger(0);
+                CompressingEntityProducer producer = new CompressingEntityProducer(
+                        new JsonSequenceEntityProducer<NameValuePair>(
+                                objectMapper,
+                                JsonSequenceFormat.NEWLINE_DELIMITED,
+                                channel -> {
+                                    while (count.get() < 500) {
+                                        if (channel.write(new BasicNameValuePair("param" + count.get(), "value")) == 0) {
+                                            return;
+                                        }
+                                        count.incrementAndGet();
+                                    }
+                                    channel.endStream();
+                                }),
+                        contentCoding,
+                        9,
+                        256,
+                        syncFlush);
+
+                Assertions.assertThat(producer.getContentEncoding()).isEqualTo(contentCoding.getToken());
+                Assertions.assertThat(producer.getContentType()).isEqualTo(JsonContentTypes.APPLICATION_NDJSON.toString());
+                Assertions.assertThat(producer.getContentLength()).isEqualTo(-1L);
+
+                for (int n = 0; n < 2; n++) {
+                    count.set(0);
+                    WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, 64);
+                    MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+                    while (dataChannel.isOpen()) {
+                        producer.produce(dataChannel);
+                        byteChannel.flush();
+                    }
+                    byte[] compressed = byteChannel.toByteArray();
+                    Assertions.assertThat(compressed.length).isLessThan(expected.length() / 5);
+
+                    InputStream inputStream = new ByteArrayInputStream(compressed);
+                    inputStream = contentCoding == ContentCoding.GZIP
+                            ? new GZIPInputStream(inputStream)
+                            : new InflaterInputStream(inputStream);
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    byte[] tmp = new byte[1024];
+                    int l;
+                    while ((l = inputStream.read(tmp)) != -1) {
+                        outputStream.write(tmp, 0, l);
+                    }
+                    Assertions.assertThat(new String(outputStream.toByteArray(), StandardCharsets.US_ASCII))
+                            .isEqualTo(expected.toString());
+                    producer.releaseResources();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testJsonObjectSequenceEntityProducerNdjson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        AtomicInteger count = new AtomicInteger(0);
+        JsonSequenceEntityProducer<NameValuePair> producer = new JsonSequenceEntityProducer<>(
+                objectMapper,
+                JsonSequenceFormat.NEWLINE_DELIMITED,
+                channel -> {
+                    if (count.incrementAndGet() <= 3) {
+                        channel.write(new BasicNameValuePair("param" + count.get(), "value"));
+                    } else {
+                        channel.endStream();
+                    }
+                });
+
+        Assertions.assertThat(producer.getContentType()).isEqualTo(JsonContentTypes.APPLICATION_NDJSON.toString());
+
+        WritableByteChannelMock byteChannel = new WritableByteChannelMock(16, 16);
+        MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+        while (dataChannel.isOpen()) {
+            producer.produce(dataChannel);
+            byteChannel.flush();
+        }
+        Assertions.assertThat(byteChannel.dump(StandardCharsets.US_ASCII)).isEqualTo(
+                "{\"name\":\"param1\",\"value\":\"value\"}\n" +
+                "{\"name\":\"param2\",\"value\":\"value\"}\n" +
+                "{\"name\":\"param3\",\"value\":\"value\"}\n");
+    }
+
+    @Test
+    public void testJsonObjectSequenceEntityProducerJsonSeq() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        AtomicInteger count = new AtomicInteger(0);
+        JsonSequenceEntityProducer<NameValuePair> producer = new JsonSequenceEntityProducer<>(
+                objectMapper,
+                JsonSequenceFormat.JSON_SEQ,
+                channel -> {
+                    if (count.incrementAndGet() <= 3) {
+                        channel.write(new BasicNameValuePair("param" + count.get(), "value"));
+                    } else {
+                        channel.endStream();
+                    }
+                });
+
+        Assertions.assertThat(producer.getContentType()).isEqualTo(JsonContentTypes.APPLICATION_JSON_SEQ.toString());
+
+        WritableByteChannelMock byteChannel = new WritableByteChannelMock(16, 16);
+        MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+        while (dataChannel.isOpen()) {
+            producer.produce(dataChannel);
+            byteChannel.flush();
+        }
+        Assertions.assertThat(byteChannel.dump(StandardCharsets.US_ASCII)).isEqualTo(
+                "\u001E{\"name\":\"param1\",\"value\":\"value\"}\n" +
+                "\u001E{\"name\":\"param2\",\"value\":\"value\"}\n" +
+                "\u001E{\"name\":\"param3\",\"value\":\"value\"}\n");
+    }
+
+    @Test
+    public void testJsonObjectSequenceEntityProducerConcurrentWriters() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        AtomicReference<ObjectChannel<NameValuePair>> channelRef = new AtomicReference<>();
+        JsonSequenceEntityProducer<NameValuePair> producer = new JsonSequenceEntityProducer<>(
+                objectMapper,
+                1024,
+                new SizeClassByteBufferPool(64, 4096, 65536, true),
+                JsonSequenceFormat.NEWLINE_DELIMITED,
+                channelRef::set);
+
+        WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, 512);
+        MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+        producer.produce(dataChannel);
+        ObjectChannel<NameValuePair> objectChannel = channelRef.get();
+        Assertions.assertThat(objectChannel).isNotNull();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int thread = i;
+                futures.add(executorService.submit(() -> {
+                    for (int n = 0; n < 500; n++) {
+                        objectChannel.write(new BasicNameValuePair("thread" + thread, Integer.toString(n)));
+                    }
+                    return null;
+                }));
+            }
+            executorService.submit(() -> {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                objectChannel.endStream();
+                return null;
+            });
+            while (dataChannel.isOpen()) {
+                producer.produce(dataChannel);
+                byteChannel.flush();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        String[] lines = byteChannel.dump(StandardCharsets.US_ASCII).split("\n");
+        Assertions.assertThat(lines).hasSize(2000);
+        Set<String> unique = new HashSet<>(Arrays.asList(lines));
+        Assertions.assertThat(unique).hasSize(2000);
+        Assertions.assertThat(unique).contains(
+                "{\"name\":\"thread0\",\"value\":\"0\"}",
+                "{\"name\":\"thread3\",\"value\":\"499\"}");
+        Assertions.assertThat(objectChannel.write(new BasicNameValuePair("late", "value"))).isEqualTo(0);
+        producer.releaseResources();
+    }
+
+    @Test
+    public void testJsonObjectSequenceEntityProducerPackedBuffers() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        SizeClassByteBufferPool pool = new SizeClassByteBufferPool(1024, 65536, 1024 * 1024);
+        AtomicInteger acquired = new AtomicInteger(0);
+        AtomicInteger released = new AtomicInteger(0);
+        ByteBufferPool bufferPool = new ByteBufferPool() {
+
+            @Override
+            public ByteBuffer acquire(int capacity) {
+                acquired.incrementAndGet();
+                return pool.acquire(capacity);
+            }
+
+            @Override
+            public void release(ByteBuffer buffer) {
+                released.incrementAndGet();
+                pool.release(buffer);
+            }
+
+        };
+
+        AtomicInteger count = new AtomicInteger(0);
+        JsonSequenceEntityProducer<NameValuePair> producer = new JsonSequenceEntityProducer<>(
+                objectMapper,
+                1024,
+                bufferPool,
+                JsonSequenceFormat.NEWLINE_DELIMITED,
+                channel -> {
+                    while (count.get() < 200) {
+                        if (channel.write(new BasicNameValuePair("param" + count.get(), "value")) == 0) {
+                            return;
+                        }
+                        count.incrementAndGet();
+                    }
+                    channel.endStream();
+                });
+
+        WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, 256);
+        MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+        while (dataChannel.isOpen()) {
+            producer.produce(dataChannel);
+            byteChannel.flush();
+        }
+        String[] lines = byteChannel.dump(StandardCharsets.US_ASCII).split("\n");
+        Assertions.assertThat(lines).hasSize(200);
+        Assertions.assertThat(lines[199]).isEqualTo("{\"name\":\"param199\",\"value\":\"value\"}");
+        // Serialized objects get packed into shared pooled buffers
+        Assertions.assertThat(acquired.get()).isLessThan(20);
+        producer.releaseResources();
+        Assertions.assertThat(released.get()).isEqualTo(acquired.get());
+    }
+
+    @Test
+    public void testJsonObjectSequenceEntityProducerWriteRacingEndStream() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                AtomicReference<ObjectChannel<NameValuePair>> channelRef = new AtomicReference<>();
+                JsonSequenceEntityProducer<NameValuePair> producer = new JsonSequenceEntityProducer<>(
+                        objectMapper,
+                        JsonSequenceFormat.NEWLINE_DELIMITED,
+                        channelRef::set);
+
+                WritableByteChannelMock byteChannel = new WritableByteChannelMock(1024, -1);
+                MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+                producer.produce(dataChannel);
+                ObjectChannel<NameValuePair> objectChannel = channelRef.get();
+
+                AtomicInteger accepted = new AtomicInteger(0);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    futures.add(executorService.submit(() -> {
+                        for (int n = 0; n < 200; n++) {
+                            accepted.addAndGet(objectChannel.write(new BasicNameValuePair("param", Integer.toString(n))));
+                        }
+                        return null;
+                    }));
+                }
+                futures.add(executorService.submit(() -> {
+                    objectChannel.endStream();
+                    return null;
+                }));
+                while (dataChannel.isOpen()) {
+                    producer.produce(dataChannel);
+                    byteChannel.flush();
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                String content = byteChannel.dump(StandardCharsets.US_ASCII);
+                int lines = content.isEmpty() ? 0 : content.split("\n").length;
+                Assertions.assertThat(lines).isEqualTo(accepted.get());
+                producer.releaseResources();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testJsonObjectSequenceEntityProducerWatermarks() throws Exception {
+        JsonFactory factory = new JsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+
+        AtomicInteger count = new AtomicInteger(0);
+        AtomicInteger invocations = new AtomicInteger(0);
+        AtomicInteger rejected = new AtomicInteger(0);
+        AtomicReference<JsonSequenceEntityProducer<NameValuePair>> producerRef = new AtomicReference<>();
+        producerRef.set(new JsonSequenceEntityProducer<>(
+                objectMapper,
+                1024,
+                null,
+                JsonSequenceFormat.NEWLINE_DELIMITED,
+                128,
+                256,
+                channel -> {
+                    invocations.incrementAndGet();
+                    while (count.get() < 200) {
+                        Assertions.assertThat(producerRef.get().available()).isLessThan(256 + 64);
+                        if (channel.write(new BasicNameValuePair("param", Integer.toString(count.get()))) == 0) {
+                            rejected.incrementAndGet();
+                            return;
+                        }
+                        count.incrementAndGet();
+                    }
+                    channel.endStream();
+                }));
+        JsonSequenceEntityProducer<NameValuePair> producer = producerRef.get();
+
+        WritableByteChannelMock byteChannel = new WritableByteChannelMock(64, 64);
+        MockDataStreamChannel dataChannel = new MockDataStreamChannel(byteChannel);
+        while (dataChannel.isOpen()) {
+            producer.produce(dataChannel);
+            byteChannel.flush();
+        }
+
+        String[] lines = byteChannel.dump(StandardCharsets.US_ASCII).split("\n");
+        Assertions.assertThat(lines).hasSize(200);
+        Assertions.assertThat(lines[199]).isEqualTo("{\"name\":\"param\",\"value\":\"199\"}");
+        Assertions.assertThat(rejected.get()).isGreaterThan(0);
+        Assertions.assertThat(invocations.get()).isGreaterThan(rejected.get());
+        producer.releaseResources();
+    }
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018, OK2 Consulting Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ok2c.hc5.json.http;
+
+import java.nio.ByteBuffer;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SizeClassByteBufferPoolTest {
+
+    @Test
+    public void testAcquireRelease() throws Exception {
+        SizeClassByteBufferPool pool = new SizeClassByteBufferPool(1024, 8192, 16384);
+
+        ByteBuffer buffer1 = pool.acquire(100);
+        Assertions.assertThat(buffer1.capacity()).isEqualTo(1024);
+        ByteBuffer buffer2 = pool.acquire(3000);
+        Assertions.assertThat(buffer2.capacity()).isEqualTo(4096);
+        ByteBuffer buffer3 = pool.acquire(10000);
+        Assertions.assertThat(buffer3.capacity()).isEqualTo(10000);
+
+        buffer1.put((byte) 1);
+        pool.release(buffer1);
+        pool.release(buffer2);
+        pool.release(buffer3);
+        Assertions.assertThat(pool.getRetained()).isEqualTo(1024 + 4096);
+
+        ByteBuffer buffer4 = pool.acquire(1000);
+        Assertions.assertThat(buffer4).isSameAs(buffer1);
+        Assertions.assertThat(buffer4.position()).isEqualTo(0);
+        Assertions.assertThat(pool.getRetained()).isEqualTo(4096);
+    }
+
+    @Test
+    public void testRetainedCap() throws Exception {
+        SizeClassByteBufferPool pool = new SizeClassByteBufferPool(1024, 8192, 10000);
+
+        ByteBuffer buffer1 = pool.acquire(8192);
+        ByteBuffer buffer2 = pool.acquire(8192);
+        pool.release(buffer1);
+        pool.release(buffer2);
+        Assertions.assertThat(pool.getRetained()).isEqualTo(8192);
+
+        Assertions.assertThat(pool.acquire(8192)).isSameAs(buffer1);
+        Assertions.assertThat(pool.acquire(8192)).isNotSameAs(buffer2);
+    }
+
+    @Test
+    public void testDirectBuffers() throws Exception {
+        SizeClassByteBufferPool pool = new SizeClassByteBufferPool(1024, 8192, 16384, true);
+
+        ByteBuffer buffer1 = pool.acquire(100);
+        Assertions.assertThat(buffer1.isDirect()).isTrue();
+        pool.release(buffer1);
+        pool.release(ByteBuffer.allocate(1024));
+        Assertions.assertThat(pool.getRetained()).isEqualTo(1024);
+        Assertions.assertThat(pool.acquire(100)).isSameAs(buffer1);
+    }
+
+    @Test
+    public void testMaxSizeBound() throws Exception {
+        Assertions.assertThatThrownBy(() -> new SizeClassByteBufferPool(1024, (1 << 30) + 1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        SizeClassByteBufferPool pool = new SizeClassByteBufferPool(1024, 1 << 30, 0);
+        Assertions.assertThat(pool.acquire(1000).capacity()).isEqualTo(1024);
+    }
+
+}
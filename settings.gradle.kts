@@ -2,3 +2,4 @@ rootProject.name = "httpcomponents-jackson"
 rootProject.buildFileName = "build.gradle.kts"
 
 include(":hc5-async-json")
+include(":hc5-async-json-benchmark")